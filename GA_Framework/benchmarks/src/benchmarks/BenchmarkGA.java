@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.io.IOException;
+
+import problems.qbfpt.qbf.solvers.GA_QBFPT;
+
+/**
+ * A GA_QBFPT whose steps can be run one at a time by the benchmarks.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class BenchmarkGA extends GA_QBFPT {
+
+	/**
+	 * Creates a GA with the default operators of
+	 * {@link GA_QBFPT#solve(boolean, boolean, boolean, boolean, boolean)}
+	 * and a mutation rate of 1/n, and starts a run with a fixed seed.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @param popSize
+	 *            Population size.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public BenchmarkGA(String filename, int popSize) throws IOException {
+		super(Integer.MAX_VALUE, popSize, 0.0, filename);
+		setMutationRate(1.0 / getChromosomeSize());
+		setOperators(false, false, false, false, false);
+		start();
+	}
+
+	/**
+	 * Starts a new run, from a new random population.
+	 */
+	public void start() {
+		setSeed(0);
+		initialize();
+	}
+
+	/**
+	 * Runs the next generation of the current run.
+	 */
+	public void step() {
+		nextGeneration();
+	}
+
+	public Population population() {
+		return getPopulation();
+	}
+
+	/**
+	 * @return A random chromosome made feasible by
+	 *         {@link #removeUntilFeasible}.
+	 */
+	public BinaryChromosome randomFeasibleChromosome() {
+		BinaryChromosome chromosome = (BinaryChromosome) generateRandomChromosome();
+		removeUntilFeasible(chromosome);
+		return chromosome;
+	}
+
+}
@@ -0,0 +1,154 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import metaheuristics.ga.AbstractGA;
+import problems.qbf.QBF;
+import problems.qbfpt.qbf.QBFPT;
+import solutions.Solution;
+
+/**
+ * Benchmarks of the evaluators of the QBF and of the QBFPT constraints, on
+ * random solutions of the bundled instances. The evaluators cycle through a
+ * few solutions, so that their branches do not always go the same way.
+ *
+ * @author ccavellucci, fusberti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmarks {
+
+	/**
+	 * the number of solutions the benchmarks cycle through
+	 */
+	private static final int SAMPLES = 64;
+
+	@Param({ "qbf020", "qbf040", "qbf060", "qbf080", "qbf100", "qbf200", "qbf400" })
+	public String instance;
+
+	private QBF qbf;
+	private QBFPT qbfpt;
+	private int n;
+
+	/**
+	 * random solutions, as bitsets and as solutions, and feasible ones
+	 */
+	private long[][] bitsets;
+	private List<Solution<Integer>> solutions;
+	private long[][] feasible;
+
+	private int sample = 0;
+	private int variable = 0;
+
+	@Setup
+	public void setup() throws IOException {
+		AbstractGA.verbose = false;
+		String filename = new File("instances", instance).getPath();
+		qbf = new QBF(filename);
+		qbfpt = new QBFPT(filename);
+		n = qbf.getDomainSize();
+
+		SplittableRandom rng = new SplittableRandom(0);
+		bitsets = new long[SAMPLES][];
+		solutions = new ArrayList<Solution<Integer>>();
+		for (int s = 0; s < SAMPLES; s++) {
+			bitsets[s] = new long[(n + 63) >>> 6];
+			Solution<Integer> solution = new Solution<Integer>();
+			for (int i = 0; i < n; i++) {
+				if (rng.nextBoolean()) {
+					bitsets[s][i >>> 6] |= 1L << i;
+					solution.add(i);
+				}
+			}
+			solutions.add(solution);
+		}
+		for (int i = 0; i < n; i++) {
+			qbf.variables[i] = (bitsets[0][i >>> 6] >>> i) & 1;
+		}
+
+		BenchmarkGA ga = new BenchmarkGA(filename, 2);
+		feasible = new long[SAMPLES][];
+		for (int s = 0; s < SAMPLES; s++) {
+			feasible[s] = ga.randomFeasibleChromosome().getWords();
+		}
+	}
+
+	private int nextSample() {
+		sample = (sample + 1) % SAMPLES;
+		return sample;
+	}
+
+	/**
+	 * QBF.evaluateQBF, on a random solution.
+	 */
+	@Benchmark
+	public double evaluateQBF() {
+		return qbf.evaluateQBF();
+	}
+
+	/**
+	 * QBF.evaluate(Solution).
+	 */
+	@Benchmark
+	public double evaluateSolution() {
+		return qbf.evaluate(solutions.get(nextSample()));
+	}
+
+	/**
+	 * QBF.evaluate(long[]), as done by the GA.
+	 */
+	@Benchmark
+	public double evaluateBitset() {
+		return qbf.evaluate(bitsets[nextSample()]);
+	}
+
+	/**
+	 * QBF.evaluateFlipCost, i.e. the contribution of a variable.
+	 */
+	@Benchmark
+	public double contribution() {
+		if (++variable == n) {
+			variable = 0;
+			nextSample();
+		}
+		return qbf.evaluateFlipCost(bitsets[sample], variable);
+	}
+
+	/**
+	 * QBFPT.isFeasible(long[]), on feasible solutions.
+	 */
+	@Benchmark
+	public boolean isFeasible() {
+		return qbfpt.isFeasible(feasible[nextSample()]);
+	}
+
+	/**
+	 * QBFPT.findForbiddenValue(long[]), on random solutions.
+	 */
+	@Benchmark
+	public Integer findForbiddenValue() {
+		return qbfpt.findForbiddenValue(bitsets[nextSample()]);
+	}
+
+}
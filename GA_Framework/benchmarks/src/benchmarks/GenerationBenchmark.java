@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import metaheuristics.ga.AbstractGA;
+
+/**
+ * Benchmark of a full generation of a GA_QBFPT with the default operators.
+ * Each iteration restarts the run from the same seed, so that the
+ * iterations measure the same generations.
+ *
+ * @author ccavellucci, fusberti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+
+	@Param({ "qbf020", "qbf040", "qbf060", "qbf080", "qbf100", "qbf200", "qbf400" })
+	public String instance;
+
+	@Param({ "100", "1000" })
+	public int popSize;
+
+	private BenchmarkGA ga;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		AbstractGA.verbose = false;
+		ga = new BenchmarkGA(new File("instances", instance).getPath(), popSize);
+	}
+
+	@Setup(Level.Iteration)
+	public void restart() {
+		ga.start();
+	}
+
+	/**
+	 * AbstractGA.nextGeneration.
+	 */
+	@Benchmark
+	public int generation() {
+		ga.step();
+		return ga.getGeneration();
+	}
+
+}
@@ -0,0 +1,129 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import metaheuristics.ga.AbstractGA;
+import metaheuristics.ga.CrossoverOperator;
+import metaheuristics.ga.GeometricMutation;
+import metaheuristics.ga.MutationOperator;
+import metaheuristics.ga.PerLocusMutation;
+import metaheuristics.ga.SUSSelection;
+import metaheuristics.ga.SelectionOperator;
+import metaheuristics.ga.TournamentSelection;
+import metaheuristics.ga.TwoPointCrossover;
+import metaheuristics.ga.UniformCrossover;
+
+/**
+ * Benchmarks of each GA operator, on the initial population of a run: a
+ * selection builds a whole parents population, a crossover a pair of
+ * offsprings, and a mutation mutates a chromosome.
+ *
+ * @author ccavellucci, fusberti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperatorBenchmarks {
+
+	@Param({ "qbf020", "qbf040", "qbf060", "qbf080", "qbf100", "qbf200", "qbf400" })
+	public String instance;
+
+	@Param({ "100", "1000" })
+	public int popSize;
+
+	private BenchmarkGA ga;
+	private AbstractGA<Integer, Integer>.Population population;
+	private AbstractGA<Integer, Integer>.Population parents;
+	private AbstractGA<Integer, Integer>.Population offsprings;
+	private AbstractGA<Integer, Integer>.Population selected;
+
+	private final SelectionOperator<Integer, Integer> tournament = new TournamentSelection<Integer, Integer>();
+	private final SelectionOperator<Integer, Integer> sus = new SUSSelection<Integer, Integer>();
+	private final CrossoverOperator<Integer, Integer> twoPoint = new TwoPointCrossover<Integer, Integer>();
+	private final CrossoverOperator<Integer, Integer> uniform = new UniformCrossover<Integer, Integer>();
+	private final MutationOperator<Integer, Integer> geometric = new GeometricMutation<Integer, Integer>();
+	private final MutationOperator<Integer, Integer> perLocus = new PerLocusMutation<Integer, Integer>();
+
+	private int pair = 0;
+	private int offspring = 0;
+
+	@Setup
+	public void setup() throws IOException {
+		AbstractGA.verbose = false;
+		ga = new BenchmarkGA(new File("instances", instance).getPath(), popSize);
+		population = ga.population();
+		parents = ga.new Population();
+		tournament.select(ga, population, parents);
+		offsprings = ga.new Population();
+		for (AbstractGA<Integer, Integer>.Chromosome c : population) {
+			offsprings.add(c.copy());
+		}
+		selected = ga.new Population();
+	}
+
+	private int select(SelectionOperator<Integer, Integer> selection) {
+		selected.clear();
+		selection.select(ga, population, selected);
+		return selected.size();
+	}
+
+	private int crossover(CrossoverOperator<Integer, Integer> crossover) {
+		pair = (pair + 2) % parents.size();
+		crossover.crossover(ga, parents.get(pair), parents.get(pair + 1), offsprings.get(pair), offsprings.get(pair + 1));
+		return offsprings.get(pair).get(0);
+	}
+
+	private int mutate(MutationOperator<Integer, Integer> mutation) {
+		offspring = (offspring + 1) % offsprings.size();
+		mutation.mutate(ga, offsprings.get(offspring));
+		return offsprings.get(offspring).get(0);
+	}
+
+	@Benchmark
+	public int selectionTournament() {
+		return select(tournament);
+	}
+
+	@Benchmark
+	public int selectionSus() {
+		return select(sus);
+	}
+
+	@Benchmark
+	public int crossoverTwoPoint() {
+		return crossover(twoPoint);
+	}
+
+	@Benchmark
+	public int crossoverUniform() {
+		return crossover(uniform);
+	}
+
+	@Benchmark
+	public int mutationGeometric() {
+		return mutate(geometric);
+	}
+
+	@Benchmark
+	public int mutationPerLocus() {
+		return mutate(perLocus);
+	}
+
+}
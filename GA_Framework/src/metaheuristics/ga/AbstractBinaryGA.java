@@ -0,0 +1,477 @@
+package metaheuristics.ga;
+
+import java.util.Arrays;
+
+import problems.Evaluator;
+
+/**
+ * Abstract class for GAs whose chromosomes are binary strings. Instead of a
+ * list of boxed integers, the genes are stored in a {@link BinaryChromosome},
+ * a bitset backed by an array of 64-bit words, so that crossover and mutation
+ * become word-level mask operations.
+ * 
+ * In the incremental evaluation mode each chromosome also keeps its objective
+ * value up to date: a flip costs one {@link #evaluateFlipCost} instead of a
+ * whole {@link #evaluateCost}, and an offspring that differs from a parent in
+ * a few loci is evaluated from the parent's value plus the flip deltas.
+ *
+ * @author ccavellucci, fusberti
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public abstract class AbstractBinaryGA<F> extends AbstractGA<Integer, F> {
+
+	/**
+	 * A binary chromosome of fixed size {@link #chromosomeSize}. Each gene is
+	 * a bit of {@link #words}, locus i being bit (i % 64) of word (i / 64).
+	 * The bits beyond the last locus are always zero.
+	 * 
+	 * Subclasses may keep more values derived from the genes up to date, by
+	 * overriding {@link #onFlip}, {@link #onReset} and {@link #assign}.
+	 */
+	public class BinaryChromosome extends Chromosome {
+
+		/**
+		 * the genes, packed 64 per word
+		 */
+		protected final long[] words;
+
+		/**
+		 * the objective value of the genes, or NaN if it is unknown
+		 */
+		protected double cost = Double.NaN;
+
+		/**
+		 * Creates a chromosome with all genes set to zero.
+		 */
+		public BinaryChromosome() {
+			words = new long[(chromosomeSize + 63) >>> 6];
+		}
+
+		public BinaryChromosome(BinaryChromosome chromosome) {
+			words = chromosome.words.clone();
+			fitness = chromosome.fitness;
+			cost = chromosome.cost;
+		}
+
+		@Override
+		public BinaryChromosome copy() {
+			return new BinaryChromosome(this);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * When both chromosomes are binary, the words are copied through
+		 * {@link #assign}, keeping the values derived from the genes.
+		 */
+		@Override
+		public void copyFrom(Chromosome source) {
+			if (source instanceof AbstractBinaryGA.BinaryChromosome) {
+				assign((BinaryChromosome) source);
+			} else {
+				for (int locus = 0; locus < chromosomeSize; locus++) {
+					set(locus, source.get(locus));
+				}
+				fitness = source.fitness;
+			}
+		}
+
+		/**
+		 * @param locus
+		 *            The position in the genotype.
+		 * @return true if the gene at the given locus is 1.
+		 */
+		public boolean getBit(int locus) {
+			return (words[locus >>> 6] & (1L << locus)) != 0;
+		}
+
+		/**
+		 * Flips the gene at the given locus.
+		 *
+		 * @param locus
+		 *            The position in the genotype being flipped.
+		 */
+		public void flip(int locus) {
+			onFlip(locus);
+			words[locus >>> 6] ^= 1L << locus;
+			invalidate();
+		}
+
+		/**
+		 * Makes this chromosome identical to another one, including its
+		 * cached fitness and objective value.
+		 *
+		 * @param source
+		 *            The chromosome being copied.
+		 */
+		protected void assign(BinaryChromosome source) {
+			System.arraycopy(source.words, 0, words, 0, words.length);
+			fitness = source.fitness;
+			cost = source.cost;
+		}
+
+		/**
+		 * Called right before the gene at the given locus is flipped, to update
+		 * the values derived from the genes. It keeps the objective value
+		 * through {@link #evaluateFlipCost} in the incremental mode.
+		 *
+		 * @param locus
+		 *            The position in the genotype about to be flipped.
+		 */
+		protected void onFlip(int locus) {
+			if (!Double.isNaN(cost)) {
+				if (incrementalEvaluation)
+					cost += evaluateFlipCost(this, locus);
+				else
+					cost = Double.NaN;
+			}
+		}
+
+		/**
+		 * Called after several genes have changed at once, to discard the
+		 * values derived from the genes.
+		 */
+		protected void onReset() {
+			cost = Double.NaN;
+		}
+
+		/**
+		 * Gives the objective value of the genes, evaluating it from scratch
+		 * only if it is not already known.
+		 *
+		 * @return The objective value of the chromosome.
+		 */
+		public double getCost() {
+			if (Double.isNaN(cost))
+				cost = evaluateCost(this);
+			return cost;
+		}
+
+		/**
+		 * Sets every gene at random, each one being 1 with probability 0.5.
+		 */
+		public void randomize() {
+			for (int w = 0; w < words.length; w++) {
+				words[w] = rng.nextLong();
+			}
+			clearUnusedBits();
+			onReset();
+			invalidate();
+		}
+
+		/**
+		 * @return The number of genes set to 1.
+		 */
+		public int cardinality() {
+			int count = 0;
+			for (long word : words) {
+				count += Long.bitCount(word);
+			}
+			return count;
+		}
+
+		/**
+		 * Gives the first locus, at or after the given one, whose gene is 1.
+		 *
+		 * @param from
+		 *            The locus where the search starts.
+		 * @return The locus found, or -1 if there is none.
+		 */
+		public int nextSetBit(int from) {
+			if (from >= chromosomeSize)
+				return -1;
+			int w = from >>> 6;
+			long word = words[w] & (-1L << from);
+			while (word == 0) {
+				if (++w == words.length)
+					return -1;
+				word = words[w];
+			}
+			return (w << 6) + Long.numberOfTrailingZeros(word);
+		}
+
+		/**
+		 * @return The words holding the genes. Callers must not modify them.
+		 */
+		public long[] getWords() {
+			return words;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * When both chromosomes are binary, the loci are exchanged a word at a
+		 * time through a range mask.
+		 */
+		@Override
+		public void copyRange(Chromosome source, int from, int to) {
+
+			if (!(source instanceof AbstractBinaryGA.BinaryChromosome)) {
+				super.copyRange(source, from, to);
+				return;
+			}
+			if (from >= to)
+				return;
+
+			BinaryChromosome other = (BinaryChromosome) source;
+			long[] diff = flipMask;
+			int inside = 0;
+			int outside = 0;
+
+			for (int w = 0; w < words.length; w++) {
+				long mask = rangeMask(w, from, to);
+				diff[w] = words[w] ^ other.words[w];
+				inside += Long.bitCount(diff[w] & mask);
+				outside += Long.bitCount(diff[w] & ~mask);
+			}
+
+			if (inside == 0)
+				return;
+
+			if (outside < inside && !Double.isNaN(other.cost)) {
+				/* the result is closer to the source, so start from it */
+				assign(other);
+				for (int w = 0; w < words.length; w++) {
+					diff[w] &= ~rangeMask(w, from, to);
+				}
+				applyFlips(diff, outside);
+			} else {
+				for (int w = 0; w < words.length; w++) {
+					diff[w] &= rangeMask(w, from, to);
+				}
+				applyFlips(diff, inside);
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * When both chromosomes are binary, a random 64-bit mask is drawn for
+		 * each word and the words are exchanged as (a & ~m) | (b & m).
+		 */
+		@Override
+		public void uniformExchange(Chromosome sibling) {
+
+			if (!(sibling instanceof AbstractBinaryGA.BinaryChromosome)) {
+				super.uniformExchange(sibling);
+				return;
+			}
+
+			BinaryChromosome other = (BinaryChromosome) sibling;
+			long[] diff = flipMask;
+			int changes = 0;
+
+			for (int w = 0; w < words.length; w++) {
+				long mask = rng.nextLong();
+				diff[w] = (words[w] ^ other.words[w]) & mask;
+				changes += Long.bitCount(diff[w]);
+			}
+
+			if (changes == 0)
+				return;
+
+			applyFlips(diff, changes);
+			other.applyFlips(diff, changes);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * When both chromosomes are binary, the differing loci are counted a
+		 * word at a time.
+		 */
+		@Override
+		public int distance(Chromosome other) {
+
+			if (!(other instanceof AbstractBinaryGA.BinaryChromosome))
+				return super.distance(other);
+
+			long[] otherWords = ((BinaryChromosome) other).words;
+			int distance = 0;
+			for (int w = 0; w < words.length; w++) {
+				distance += Long.bitCount(words[w] ^ otherWords[w]);
+			}
+			return distance;
+		}
+
+		@Override
+		public Integer get(int index) {
+			checkLocus(index);
+			return getBit(index) ? 1 : 0;
+		}
+
+		@Override
+		public int size() {
+			return chromosomeSize;
+		}
+
+		@Override
+		public Integer set(int index, Integer element) {
+			checkLocus(index);
+			int previous = getBit(index) ? 1 : 0;
+			if (element != 0 && element != 1)
+				throw new IllegalArgumentException("A binary gene must be 0 or 1: " + element);
+			if (element != previous)
+				flip(index);
+			return previous;
+		}
+
+		@Override
+		public void add(int index, Integer element) {
+			throw new UnsupportedOperationException("A binary chromosome has a fixed size");
+		}
+
+		@Override
+		public Integer remove(int index) {
+			throw new UnsupportedOperationException("A binary chromosome has a fixed size");
+		}
+
+		@Override
+		public void clear() {
+			Arrays.fill(words, 0L);
+			onReset();
+			invalidate();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o instanceof AbstractBinaryGA.BinaryChromosome)
+				return Arrays.equals(words, ((AbstractBinaryGA<?>.BinaryChromosome) o).words);
+			return super.equals(o);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * The value is the same as the one of a list holding the genes, so the
+		 * contract of {@link java.util.List#hashCode} is kept without boxing.
+		 */
+		@Override
+		public int hashCode() {
+			int hashCode = 1;
+			for (int locus = 0; locus < chromosomeSize; locus++) {
+				hashCode = 31 * hashCode + (getBit(locus) ? 1 : 0);
+			}
+			return hashCode;
+		}
+
+		/**
+		 * Flips every locus set in a mask. If the objective value is known and
+		 * there are few flips compared to the number of genes set to 1, the
+		 * value is updated flip by flip; otherwise it is left to be evaluated
+		 * from scratch.
+		 */
+		private void applyFlips(long[] mask, int changes) {
+
+			if (!Double.isNaN(cost) && incrementalEvaluation && 2 * changes < cardinality()) {
+				for (int w = 0; w < words.length; w++) {
+					long word = mask[w];
+					while (word != 0) {
+						flip((w << 6) + Long.numberOfTrailingZeros(word));
+						word &= word - 1;
+					}
+				}
+			} else {
+				for (int w = 0; w < words.length; w++) {
+					words[w] ^= mask[w];
+				}
+				onReset();
+			}
+
+			invalidate();
+		}
+
+		private long rangeMask(int w, int from, int to) {
+			int firstWord = from >>> 6;
+			int lastWord = (to - 1) >>> 6;
+			if (w < firstWord || w > lastWord)
+				return 0L;
+			long mask = -1L;
+			if (w == firstWord)
+				mask &= -1L << from;
+			if (w == lastWord)
+				mask &= -1L >>> -to;
+			return mask;
+		}
+
+		private void checkLocus(int locus) {
+			if (locus < 0 || locus >= chromosomeSize)
+				throw new IndexOutOfBoundsException("Locus: " + locus + ", Size: " + chromosomeSize);
+		}
+
+		private void clearUnusedBits() {
+			if ((chromosomeSize & 63) != 0)
+				words[words.length - 1] &= -1L >>> -chromosomeSize;
+		}
+
+	}
+
+	/**
+	 * flag that indicates whether the objective value of the chromosomes is
+	 * updated flip by flip
+	 */
+	protected boolean incrementalEvaluation = true;
+
+	/**
+	 * scratch mask of the loci flipped by the recombination kernels, which
+	 * only run in the thread of the generational loop
+	 */
+	private final long[] flipMask;
+
+	/**
+	 * Evaluates the objective function for the genes of a chromosome from
+	 * scratch.
+	 *
+	 * @param chromosome
+	 *            The genotype being evaluated.
+	 * @return The objective value of the chromosome.
+	 */
+	protected abstract double evaluateCost(BinaryChromosome chromosome);
+
+	/**
+	 * Evaluates the variation of the objective function resulting from
+	 * flipping a single locus of a chromosome, which is not flipped yet.
+	 *
+	 * @param chromosome
+	 *            The genotype being considered.
+	 * @param locus
+	 *            The position in the genotype being flipped.
+	 * @return The variation of the objective value.
+	 */
+	protected abstract double evaluateFlipCost(BinaryChromosome chromosome, int locus);
+
+	/**
+	 * The constructor for the binary GA class.
+	 *
+	 * @param objFunction
+	 *            The objective function being optimized.
+	 * @param generations
+	 *            Number of generations to be executed.
+	 * @param popSize
+	 *            Population size.
+	 * @param mutationRate
+	 *            The mutation rate.
+	 */
+	public AbstractBinaryGA(Evaluator<F> objFunction, Integer generations, Integer popSize, Double mutationRate) {
+		super(objFunction, generations, popSize, mutationRate);
+		this.flipMask = new long[(chromosomeSize + 63) >>> 6];
+	}
+
+	public boolean isIncrementalEvaluation() {
+		return incrementalEvaluation;
+	}
+
+	/**
+	 * Turns the incremental evaluation mode on or off. When it is off, every
+	 * change to a chromosome leads to a full evaluation of its objective
+	 * value.
+	 *
+	 * @param incrementalEvaluation
+	 *            The new mode.
+	 */
+	public void setIncrementalEvaluation(boolean incrementalEvaluation) {
+		this.incrementalEvaluation = incrementalEvaluation;
+	}
+
+}
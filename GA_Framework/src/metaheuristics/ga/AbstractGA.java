@@ -1,7 +1,20 @@
 package metaheuristics.ga;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.SplittableRandom;
 
 import problems.Evaluator;
 import problems.qbfpt.qbf.QBFPT;
@@ -19,12 +32,236 @@ import solutions.Solution;
  */
 public abstract class AbstractGA<G extends Number, F> {
 
-	@SuppressWarnings("serial")
-	public class Chromosome extends ArrayList<G> {
+	/**
+	 * A chromosome carries its own fitness once it has been evaluated. The
+	 * cached value is discarded whenever a gene actually changes, so it is
+	 * safe to call {@link AbstractGA#getFitness} as often as needed.
+	 * 
+	 * The storage of the genes is left to the subclasses: a
+	 * {@link ListChromosome} keeps them in a list of G, and a more compact
+	 * storage should also override the recombination kernels
+	 * {@link #copyRange} and {@link #uniformExchange}.
+	 */
+	public abstract class Chromosome extends AbstractList<G> implements RandomAccess {
+
+		/**
+		 * the cached fitness, or NaN if the chromosome must be evaluated. It is
+		 * kept unboxed, so that evaluating a chromosome allocates nothing.
+		 */
+		protected double fitness = Double.NaN;
+
+		/**
+		 * Creates an independent copy of this chromosome, of the same kind and
+		 * carrying the same cached fitness.
+		 * 
+		 * @return A copy of the chromosome.
+		 */
+		public abstract Chromosome copy();
+
+		/**
+		 * Makes this chromosome identical to another one of the same size,
+		 * including its cached fitness. The source may belong to another GA
+		 * instance solving the same problem, such as a migrant coming from
+		 * another island.
+		 * 
+		 * @param source
+		 *            The chromosome being copied.
+		 */
+		public void copyFrom(Chromosome source) {
+			for (int j = 0; j < size(); j++) {
+				set(j, source.get(j));
+			}
+			fitness = source.fitness;
+		}
+
+		/**
+		 * Gives the number of loci in which this chromosome and another one of
+		 * the same size differ.
+		 * 
+		 * @param other
+		 *            The chromosome being compared.
+		 * @return The Hamming distance between the chromosomes.
+		 */
+		public int distance(Chromosome other) {
+			int distance = 0;
+			for (int j = 0; j < size(); j++) {
+				if (!Objects.equals(get(j), other.get(j)))
+					distance++;
+			}
+			return distance;
+		}
+
+		/**
+		 * Discards the cached fitness of the chromosome.
+		 */
+		public void invalidate() {
+			fitness = Double.NaN;
+		}
+
+		/**
+		 * Replaces the genes in the loci [from, to) by the ones of another
+		 * chromosome of the same size. This is the kernel of the 2-point
+		 * crossover.
+		 * 
+		 * @param source
+		 *            The chromosome the genes are taken from.
+		 * @param from
+		 *            The first locus being replaced (inclusive).
+		 * @param to
+		 *            The last locus being replaced (exclusive).
+		 */
+		public void copyRange(Chromosome source, int from, int to) {
+			for (int j = from; j < to; j++) {
+				set(j, source.get(j));
+			}
+		}
+
+		/**
+		 * Exchanges each locus with another chromosome of the same size with
+		 * probability 0.5. This is the kernel of the uniform crossover.
+		 * 
+		 * @param sibling
+		 *            The chromosome exchanging genes with this one.
+		 */
+		public void uniformExchange(Chromosome sibling) {
+			for (int j = 0; j < size(); j++) {
+				int whichParent = rng.nextInt(2);
+				if (whichParent == 1) {
+					G gene = get(j);
+					set(j, sibling.get(j));
+					sibling.set(j, gene);
+				}
+			}
+		}
+
+		/**
+		 * Replaces a gene, discarding the cached fitness if it changes.
+		 */
+		@Override
+		public abstract G set(int index, G element);
+
+	}
+
+	/**
+	 * A chromosome keeping its genes in a list of G.
+	 */
+	public class ListChromosome extends Chromosome {
+
+		private final ArrayList<G> genes;
+
+		public ListChromosome() {
+			genes = new ArrayList<G>();
+		}
+
+		public ListChromosome(Chromosome chromosome) {
+			genes = new ArrayList<G>(chromosome);
+			fitness = chromosome.fitness;
+		}
+
+		@Override
+		public ListChromosome copy() {
+			return new ListChromosome(this);
+		}
+
+		@Override
+		public void copyFrom(Chromosome source) {
+			modCount++;
+			genes.clear();
+			genes.addAll(source);
+			fitness = source.fitness;
+		}
+
+		@Override
+		public G get(int index) {
+			return genes.get(index);
+		}
+
+		@Override
+		public int size() {
+			return genes.size();
+		}
+
+		@Override
+		public G set(int index, G element) {
+			G previous = genes.set(index, element);
+			if (!Objects.equals(previous, element))
+				invalidate();
+			return previous;
+		}
+
+		@Override
+		public void add(int index, G element) {
+			invalidate();
+			modCount++;
+			genes.add(index, element);
+		}
+
+		@Override
+		public G remove(int index) {
+			invalidate();
+			modCount++;
+			return genes.remove(index);
+		}
+
+		@Override
+		public void clear() {
+			invalidate();
+			modCount++;
+			genes.clear();
+		}
+
 	}
 
+	/**
+	 * A population may keep the fitness of its chromosomes, by position, in a
+	 * {@link FitnessTree}, which gives its best and worst chromosomes without
+	 * a full scan. The tree is loaded by {@link #indexFitness} and kept up to
+	 * date by {@link #replace}.
+	 */
 	@SuppressWarnings("serial")
 	public class Population extends ArrayList<Chromosome> {
+
+		/**
+		 * the fitness of the chromosomes, or null if it was never loaded
+		 */
+		private FitnessTree fitnessTree;
+
+		/**
+		 * Loads the fitness of every chromosome into the fitness tree of the
+		 * population, in O(n).
+		 */
+		public void indexFitness() {
+			if (fitnessTree == null || fitnessTree.size() != size())
+				fitnessTree = new FitnessTree(size());
+			for (int i = 0; i < size(); i++) {
+				fitnessTree.put(i, getFitness(get(i)));
+			}
+			fitnessTree.build();
+		}
+
+		/**
+		 * @return The fitness tree loaded by {@link #indexFitness}, or null.
+		 */
+		public FitnessTree getFitnessTree() {
+			return fitnessTree;
+		}
+
+		/**
+		 * Copies a chromosome over the one at a given position, keeping the
+		 * fitness tree up to date in O(log n).
+		 *
+		 * @param index
+		 *            The position being replaced.
+		 * @param source
+		 *            The chromosome being copied.
+		 */
+		public void replace(int index, Chromosome source) {
+			Chromosome c = get(index);
+			c.copyFrom(source);
+			if (fitnessTree != null)
+				fitnessTree.update(index, getFitness(c));
+		}
+
 	}
 
 	/**
@@ -33,14 +270,100 @@ public abstract class AbstractGA<G extends Number, F> {
 	 */
 	public static boolean verbose = true;
 
-	private boolean performExtraMutations = false;
-	private int extraMutationsCounter = 0;
-	private boolean removeToMakeFeasible = false;
+	/**
+	 * the logger printing the improvements of the best solution when
+	 * {@link #verbose}, or null for {@link ProgressLogger#getDefault()}
+	 */
+	private ProgressLogger progressLogger = null;
+
+	/**
+	 * the number of GAs created so far, which numbers their default names
+	 */
+	private static final AtomicInteger instances = new AtomicInteger();
+
+	/**
+	 * the name of the GA, which tags the lines of its {@link ProgressLogger}
+	 */
+	private String name = getClass().getSimpleName() + "-" + instances.incrementAndGet();
+
+	/**
+	 * the number of genes mutated by the {@link ExtraMutationsRepair}, the
+	 * number of chromosomes it handed over to {@link #removeUntilFeasible}
+	 * after reaching its cap, and the time it spent, in nanoseconds
+	 */
+	protected int extraMutationsCounter = 0;
+	protected int extraMutationsFallbacks = 0;
+	protected long extraMutationsTime = 0;
+	private long evaluationsCounter = 0;
+
+	/**
+	 * the operators of the generational loop
+	 */
+	private SelectionOperator<G, F> selection = new TournamentSelection<G, F>();
+	private CrossoverOperator<G, F> crossover = new TwoPointCrossover<G, F>();
+	private MutationOperator<G, F> mutation = new GeometricMutation<G, F>();
+	private ReplacementOperator<G, F> replacement = new ElitistReplacement<G, F>();
+	private RepairOperator<G, F> repair = null;
+
+	/**
+	 * the condition ending a run before the last generation, by default the
+	 * time limit of 30 min
+	 */
+	private StoppingCriterion<G, F> stoppingCriterion = new TimeLimit<G, F>(1800.0);
+
+	/**
+	 * the listener of the measures of the generations, and the number of
+	 * generations of each window it is given
+	 */
+	private GenerationListener<G, F> generationListener = null;
+	private int generationWindow = 1;
+
+	/**
+	 * the measures of the current window, or null if there is no listener, in
+	 * which case the generational loop measures nothing
+	 */
+	private GenerationStats stats = null;
 
 	/**
-	 * a random number generator
+	 * the buffers of the generational loop, allocated once by
+	 * {@link #initialize}: the current population, the recycled chromosomes
+	 * the offsprings are written into, which swap roles at each generation,
+	 * and the selected parents, which only refer to chromosomes of the
+	 * current population
 	 */
-	public static final Random rng = new Random(0);
+	private Population population;
+	private Population offspringBuffer;
+	private Population parentsBuffer;
+
+	/**
+	 * the number of generations run since {@link #initialize}
+	 */
+	private int generation;
+
+	/**
+	 * optional cache of fitness values shared across generations, keyed by
+	 * the chromosome genes
+	 */
+	private FitnessCache<Chromosome> fitnessCache = null;
+
+	/**
+	 * the executor used by {@link #evaluatePopulation}, or null for a
+	 * sequential evaluation
+	 */
+	private ExecutorService evaluationExecutor = null;
+
+	/**
+	 * the seed of the random number generator
+	 */
+	private long seed = 0;
+
+	/**
+	 * a random number generator, owned by this GA instance. Any stream used by
+	 * another thread must be derived from it (see
+	 * {@link SplittableRandom#split()}) or from the same seed, so that runs
+	 * stay reproducible regardless of the number of threads.
+	 */
+	protected SplittableRandom rng = new SplittableRandom(seed);
 
 	/**
 	 * the objective function being optimized
@@ -82,6 +405,19 @@ public abstract class AbstractGA<G extends Number, F> {
 	 */
 	protected Chromosome bestChromosome;
 
+	/**
+	 * the value of {@link System#nanoTime()} when the run was started by
+	 * {@link #initialize}
+	 */
+	private long startTime;
+
+	/**
+	 * the time, in nanoseconds since the start of the run, and the generation
+	 * at which {@link #bestSol} was found
+	 */
+	private long bestTime;
+	private int bestGeneration;
+
 	/**
 	 * Creates a new solution which is empty, i.e., does not contain any
 	 * candidate solution element.
@@ -122,6 +458,19 @@ public abstract class AbstractGA<G extends Number, F> {
 
 	protected abstract Integer findForbiddenValue(Chromosome chromosome);
 
+	/**
+	 * Draws at random a locus whose gene takes part in a violated constraint,
+	 * i.e. one a mutation may change to make the chromosome feasible. By
+	 * default, this is the locus given by {@link #findForbiddenValue}.
+	 * 
+	 * @param chromosome
+	 *            The genotype being repaired.
+	 * @return The locus drawn, or null if the chromosome is feasible.
+	 */
+	protected Integer drawForbiddenValue(Chromosome chromosome) {
+		return findForbiddenValue(chromosome);
+	}
+
 	protected abstract void removeUntilFeasible(Chromosome c);
 
 	/**
@@ -145,14 +494,67 @@ public abstract class AbstractGA<G extends Number, F> {
 	 * @param popSize
 	 *            Population size.
 	 * @param mutationRate
-	 *            The mutation rate.
+	 *            The mutation rate, between 0 and 1.
 	 */
 	public AbstractGA(Evaluator<F> objFunction, Integer generations, Integer popSize, Double mutationRate) {
 		this.ObjFunction = objFunction;
 		this.generations = generations;
 		this.popSize = popSize;
 		this.chromosomeSize = this.ObjFunction.getDomainSize();
-		this.mutationRate = mutationRate;
+		this.mutationRate = checkMutationRate(mutationRate);
+	}
+
+	/**
+	 * @param mutationRate
+	 *            A mutation rate.
+	 * @return The mutation rate, if it is a probability.
+	 */
+	private static double checkMutationRate(double mutationRate) {
+		if (!(mutationRate >= 0 && mutationRate <= 1))
+			throw new IllegalArgumentException("The mutation rate must be between 0 and 1: " + mutationRate);
+		return mutationRate;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Restarts the random number generator of this GA from a given seed. Two
+	 * GAs with the same parameters and seed produce the same results, even
+	 * when they run in the same JVM at the same time.
+	 *
+	 * @param seed
+	 *            The new seed.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		this.rng = new SplittableRandom(seed);
+	}
+
+	public int getPopSize() {
+		return popSize;
+	}
+
+	public double getMutationRate() {
+		return mutationRate;
+	}
+
+	/**
+	 * @param mutationRate
+	 *            The probability of mutating each locus, between 0 and 1, used
+	 *            from the next generation on.
+	 */
+	public void setMutationRate(double mutationRate) {
+		this.mutationRate = checkMutationRate(mutationRate);
+	}
+
+	/**
+	 * @return The size of the chromosome, i.e. the domain size of the
+	 *         objective function.
+	 */
+	public int getChromosomeSize() {
+		return chromosomeSize;
 	}
 
 	public int getExtraMutationsCounter() {
@@ -160,440 +562,685 @@ public abstract class AbstractGA<G extends Number, F> {
 	}
 
 	/**
-	 * The GA mainframe. It starts by initializing a population of chromosomes.
-	 * It then enters a generational loop, in which each generation goes the
-	 * following steps: parent selection, crossover, mutation, population update
-	 * and best solution update.
-	 * 
-	 * @return The best feasible solution obtained throughout all iterations.
+	 * @return The number of chromosomes the {@link ExtraMutationsRepair} could
+	 *         not make feasible within its cap, and which were repaired by
+	 *         {@link #removeUntilFeasible} instead.
 	 */
-	public Solution<F> solve(boolean isSUS, boolean isUniformCrossover, boolean isSteadyState, boolean forceMutations, boolean remove) {
-		this.performExtraMutations = forceMutations;
-		this.removeToMakeFeasible = remove;
-		this.extraMutationsCounter = 0;
+	public int getExtraMutationsFallbacks() {
+		return extraMutationsFallbacks;
+	}
 
-		long startTime = System.currentTimeMillis();
-		long endTime;
-		double totalTime;
-		double maxTime = 1800.0; //30 min
+	/**
+	 * @return The time spent by the {@link ExtraMutationsRepair}, in seconds.
+	 */
+	public double getExtraMutationsTime() {
+		return extraMutationsTime / 1e9;
+	}
 
-		/* starts the initial population */
-		Population population = initializePopulation();
+	/**
+	 * @return The number of times {@link #fitness} was actually computed, i.e.
+	 *         the number of evaluations not served by a cached value.
+	 */
+	public long getEvaluationsCounter() {
+		return evaluationsCounter;
+	}
 
-		bestChromosome = getBestChromosome(population);
-		bestSol = decode(bestChromosome);
-		System.out.println("(Gen. " + 0 + ") BestSol = " + bestSol);
+	/**
+	 * Enables a fitness cache shared across generations, so that duplicate
+	 * individuals are never evaluated twice.
+	 *
+	 * @param capacity
+	 *            Maximum number of cached chromosomes. A non-positive value
+	 *            disables the cache.
+	 */
+	public void setFitnessCacheSize(int capacity) {
+		this.fitnessCache = capacity > 0 ? new FitnessCache<Chromosome>(capacity) : null;
+	}
 
-		/*
-		 * enters the main loop and repeats until a given number of generations
-		 */
-		for (int g = 1; g <= generations; g++) {
+	public FitnessCache<Chromosome> getFitnessCache() {
+		return fitnessCache;
+	}
 
-			Population parents;
-            if(isSUS){
-                parents = selectParentsSUS(population);
-            }else{
-                parents = selectParents(population);
-            }
+	/**
+	 * Gives the fitness of a chromosome, computing it through {@link #fitness}
+	 * only when it is not already known. The value is kept in the chromosome
+	 * until one of its genes changes.
+	 *
+	 * @param chromosome
+	 *            The genotype being considered for fitness evaluation.
+	 * @return The fitness value for the input chromosome.
+	 */
+	protected double getFitness(Chromosome chromosome) {
 
+		if (Double.isNaN(chromosome.fitness) && computeFitness(chromosome))
+			evaluationsCounter++;
 
-            Population offsprings;
-			if(isUniformCrossover){
-                offsprings = uniformCrossover(parents);
-            }else{
-                offsprings = crossover(parents);
-            }
+		return chromosome.fitness;
+	}
 
+	/**
+	 * Stores the fitness of a chromosome, taking it from the fitness cache if
+	 * possible. This method does not touch any state of the GA other than the
+	 * (thread-safe) cache, so it can run concurrently for distinct
+	 * chromosomes.
+	 *
+	 * @param chromosome
+	 *            The genotype being considered for fitness evaluation.
+	 * @return true if {@link #fitness} was actually computed.
+	 */
+	private boolean computeFitness(Chromosome chromosome) {
 
-			Population mutants = mutate(offsprings);
+		if (fitnessCache != null) {
+			Double cached = fitnessCache.get(chromosome);
+			if (cached != null) {
+				chromosome.fitness = cached;
+				return false;
+			}
+		}
 
-			Population newpopulation;
+		chromosome.fitness = fitness(chromosome);
+		if (fitnessCache != null)
+			fitnessCache.put(chromosome.copy(), chromosome.fitness);
 
-			if(isSteadyState){
-                newpopulation = selectPopulationSteadyState(population, mutants);
-            }else{
-                newpopulation = selectPopulation(mutants);
-            }
+		return true;
+	}
 
-			population = newpopulation;
+	/**
+	 * Sets the executor used to evaluate a whole population at once, such as
+	 * a {@link java.util.concurrent.ForkJoinPool} or a fixed thread pool. The
+	 * executor is not shut down by the GA. The {@link #fitness} function must
+	 * then be thread-safe for distinct chromosomes.
+	 *
+	 * @param executor
+	 *            The executor, or null to evaluate the chromosomes
+	 *            sequentially in the calling thread, which is the default.
+	 */
+	public void setEvaluationExecutor(ExecutorService executor) {
+		this.evaluationExecutor = executor;
+	}
 
-			bestChromosome = getBestChromosome(population);
+	public ExecutorService getEvaluationExecutor() {
+		return evaluationExecutor;
+	}
 
-			if (fitness(bestChromosome) > bestSol.cost) {
-				bestSol = decode(bestChromosome);
-				if (verbose)
-					System.out.println("(Gen. " + g + ") BestSol = " + bestSol);
-			}
+	public SelectionOperator<G, F> getSelectionOperator() {
+		return selection;
+	}
 
-			endTime   = System.currentTimeMillis();
-			totalTime = (endTime - startTime)/(double)1000;
+	public void setSelectionOperator(SelectionOperator<G, F> selection) {
+		this.selection = selection;
+	}
 
-			//if it exceeded the time limit of 1800s (30 min), then break the loop
-			if(totalTime >= maxTime) break;
-		}
+	public CrossoverOperator<G, F> getCrossoverOperator() {
+		return crossover;
+	}
 
-		return bestSol;
+	public void setCrossoverOperator(CrossoverOperator<G, F> crossover) {
+		this.crossover = crossover;
+	}
+
+	public MutationOperator<G, F> getMutationOperator() {
+		return mutation;
+	}
+
+	public void setMutationOperator(MutationOperator<G, F> mutation) {
+		this.mutation = mutation;
+	}
+
+	public ReplacementOperator<G, F> getReplacementOperator() {
+		return replacement;
+	}
+
+	public void setReplacementOperator(ReplacementOperator<G, F> replacement) {
+		this.replacement = replacement;
+	}
+
+	public RepairOperator<G, F> getRepairOperator() {
+		return repair;
 	}
 
 	/**
-	 * Randomly generates an initial population to start the GA.
-	 * 
-	 * @return A population of chromosomes.
+	 * @param repair
+	 *            The repair operator, or null if the offsprings are not
+	 *            repaired, which is the default.
 	 */
-	protected Population initializePopulation() {
+	public void setRepairOperator(RepairOperator<G, F> repair) {
+		this.repair = repair;
+	}
 
-		Population population = new Population();
+	public StoppingCriterion<G, F> getStoppingCriterion() {
+		return stoppingCriterion;
+	}
 
-		while (population.size() < popSize) {
-			population.add(generateRandomChromosome());
-		}
+	/**
+	 * Sets the condition ending a run before the number of generations is
+	 * reached, e.g. new TimeLimit(600.0).or(new StagnationLimit(1000)).
+	 *
+	 * @param stoppingCriterion
+	 *            The criterion, or null to run every generation.
+	 */
+	public void setStoppingCriterion(StoppingCriterion<G, F> stoppingCriterion) {
+		this.stoppingCriterion = stoppingCriterion;
+	}
 
-		return population;
+	/**
+	 * @return The name of the GA, by default the name of its class followed
+	 *         by a number unique to the GA, e.g. GA_QBFPT-1.
+	 */
+	public String getName() {
+		return name;
+	}
 
+	/**
+	 * @param name
+	 *            The name of the GA, which starts the lines of its
+	 *            {@link ProgressLogger}. GAs sharing a logger must have
+	 *            distinct names.
+	 */
+	public void setName(String name) {
+		this.name = Objects.requireNonNull(name);
 	}
 
 	/**
-	 * Given a population of chromosome, takes the best chromosome according to
-	 * the fitness evaluation.
-	 * 
-	 * @param population
-	 *            A population of chromosomes.
-	 * @return The best chromosome among the population.
+	 * @return The logger printing the improvements of the best solution when
+	 *         {@link #verbose}.
 	 */
-	protected Chromosome getBestChromosome(Population population) {
+	public ProgressLogger getProgressLogger() {
+		return progressLogger != null ? progressLogger : ProgressLogger.getDefault();
+	}
 
-		double bestFitness = Double.NEGATIVE_INFINITY;
-		Chromosome bestChromosome = null;
-		for (Chromosome c : population) {
-			double fitness = fitness(c);
-			if (fitness > bestFitness) {
-				bestFitness = fitness;
-				bestChromosome = c;
-			}
-		}
+	/**
+	 * @param progressLogger
+	 *            The logger printing the improvements of the best solution
+	 *            when {@link #verbose}, or null for
+	 *            {@link ProgressLogger#getDefault()}.
+	 */
+	public void setProgressLogger(ProgressLogger progressLogger) {
+		this.progressLogger = progressLogger;
+	}
 
-		return bestChromosome;
+	public GenerationListener<G, F> getGenerationListener() {
+		return generationListener;
 	}
 
 	/**
-	 * Given a population of chromosome, takes the worst chromosome according to
-	 * the fitness evaluation.
-	 * 
-	 * @param population
-	 *            A population of chromosomes.
-	 * @return The worst chromosome among the population.
+	 * Sets the listener of the measures of each generation, see
+	 * {@link GenerationStats}.
+	 *
+	 * @param listener
+	 *            The listener, or null to measure nothing, which is the
+	 *            default.
 	 */
-	protected Chromosome getWorseChromosome(Population population) {
-
-		double worseFitness = Double.POSITIVE_INFINITY;
-		Chromosome worseChromosome = null;
-		for (Chromosome c : population) {
-			double fitness = fitness(c);
-			if (fitness < worseFitness) {
-				worseFitness = fitness;
-				worseChromosome = c;
-			}
-		}
+	public void setGenerationListener(GenerationListener<G, F> listener) {
+		setGenerationListener(listener, 1);
+	}
 
-		return worseChromosome;
+	/**
+	 * Sets the listener of the measures of the generations, summed over
+	 * windows of consecutive generations. The population is only measured at
+	 * the end of each window, which keeps the cost of the measures low for a
+	 * large population.
+	 *
+	 * @param listener
+	 *            The listener, or null to measure nothing, which is the
+	 *            default.
+	 * @param window
+	 *            The number of generations of each window.
+	 */
+	public void setGenerationListener(GenerationListener<G, F> listener, int window) {
+		if (window < 1)
+			throw new IllegalArgumentException("The number of generations of a window must be positive: " + window);
+		this.generationListener = listener;
+		this.generationWindow = window;
+		this.stats = listener == null ? null : new GenerationStats();
 	}
 
 	/**
-	 * Selection of parents for crossover using the tournament method. Given a
-	 * population of chromosomes, randomly takes two chromosomes and compare
-	 * them by their fitness. The best one is selected as parent. Repeat until
-	 * the number of selected parents is equal to {@link #popSize}.
+	 * Sets the operators corresponding to the flags of {@link #solve(boolean,
+	 * boolean, boolean, boolean, boolean)}. The mutation is always the
+	 * {@link GeometricMutation}.
 	 * 
+	 * @param isSUS
+	 *            {@link SUSSelection} if true, {@link TournamentSelection}
+	 *            otherwise.
+	 * @param isUniformCrossover
+	 *            {@link UniformCrossover} if true, {@link TwoPointCrossover}
+	 *            otherwise.
+	 * @param isSteadyState
+	 *            {@link SteadyStateReplacement} if true,
+	 *            {@link ElitistReplacement} otherwise.
+	 * @param forceMutations
+	 *            Whether the offsprings are repaired by the
+	 *            {@link ExtraMutationsRepair}.
+	 * @param remove
+	 *            Whether the offsprings are repaired by the
+	 *            {@link RemovalRepair}, after the extra mutations if any.
+	 */
+	public void setOperators(boolean isSUS, boolean isUniformCrossover, boolean isSteadyState, boolean forceMutations, boolean remove) {
+		selection = isSUS ? new SUSSelection<G, F>() : new TournamentSelection<G, F>();
+		crossover = isUniformCrossover ? new UniformCrossover<G, F>() : new TwoPointCrossover<G, F>();
+		mutation = new GeometricMutation<G, F>();
+		replacement = isSteadyState ? new SteadyStateReplacement<G, F>() : new ElitistReplacement<G, F>();
+		repair = null;
+		if (forceMutations)
+			repair = new ExtraMutationsRepair<G, F>();
+		if (remove)
+			repair = repair == null ? new RemovalRepair<G, F>() : repair.andThen(new RemovalRepair<G, F>());
+	}
+
+	/**
+	 * The evaluation step computes, in one batch, the fitness of every
+	 * chromosome of a population which is not evaluated yet. The chromosomes
+	 * are split into chunks that run on the {@link #evaluationExecutor}, if
+	 * any. The selection and replacement steps that follow only read the
+	 * precomputed values.
+	 *
 	 * @param population
-	 *            The current population.
-	 * @return The selected parents for performing crossover.
-	 */
-	protected Population selectParents(Population population) {
-
-		Population parents = new Population();
-
-		while (parents.size() < popSize) {
-			int index1 = rng.nextInt(popSize);
-			Chromosome parent1 = population.get(index1);
-			int index2 = rng.nextInt(popSize);
-			Chromosome parent2 = population.get(index2);
-			if (fitness(parent1) > fitness(parent2)) {
-				parents.add(parent1);
-			} else {
-				parents.add(parent2);
+	 *            The population being evaluated.
+	 */
+	protected void evaluatePopulation(Population population) {
+
+		if (evaluationExecutor == null) {
+			for (Chromosome c : population) {
+				getFitness(c);
 			}
+			return;
+		}
+
+		/* the same chromosome may appear more than once in a population */
+		Set<Chromosome> seen = Collections.newSetFromMap(new IdentityHashMap<Chromosome, Boolean>());
+		final List<Chromosome> pending = new ArrayList<Chromosome>();
+		for (Chromosome c : population) {
+			if (Double.isNaN(c.fitness) && seen.add(c))
+				pending.add(c);
+		}
+		if (pending.isEmpty())
+			return;
+
+		int chunks = Math.min(pending.size(), 4 * Runtime.getRuntime().availableProcessors());
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>(chunks);
+		for (int k = 0; k < chunks; k++) {
+			final int from = k * pending.size() / chunks;
+			final int to = (k + 1) * pending.size() / chunks;
+			tasks.add(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					int computed = 0;
+					for (int i = from; i < to; i++) {
+						if (computeFitness(pending.get(i)))
+							computed++;
+					}
+					return computed;
+				}
+			});
 		}
 
-		return parents;
+		try {
+			for (Future<Integer> result : evaluationExecutor.invokeAll(tasks)) {
+				evaluationsCounter += result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while evaluating the population", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException("Error while evaluating the population", e.getCause());
+		}
+	}
 
+	/**
+	 * The GA mainframe, with the operators given by flags (see
+	 * {@link #setOperators}).
+	 * 
+	 * @return The best feasible solution obtained throughout all iterations.
+	 */
+	public Solution<F> solve(boolean isSUS, boolean isUniformCrossover, boolean isSteadyState, boolean forceMutations, boolean remove) {
+		setOperators(isSUS, isUniformCrossover, isSteadyState, forceMutations, remove);
+		return solve();
 	}
 
-    /**
-     * Selection of parents for crossover using the Stochastic universal selection (SUS)
-     * method, considering 2 pointers
-     *
-     * @param population
-     *            The current population.
-     * @return The selected parents for performing crossover.
-     */
-    protected Population selectParentsSUS(Population population) {
+	/**
+	 * The GA mainframe. It starts by initializing a population of chromosomes.
+	 * It then enters a generational loop, in which each generation goes the
+	 * following steps: parent selection, crossover, mutation, population update
+	 * and best solution update, each one performed by the operator set for it.
+	 * The loop ends after the given number of generations, or as soon as the
+	 * {@link StoppingCriterion} is met.
+	 * 
+	 * @return The best feasible solution obtained throughout all iterations.
+	 */
+	public Solution<F> solve() {
 
-        Population parents = new Population();
+		/* starts the initial population */
+		initialize();
 
-        double total = 0;
-        double fitnessValue;
-        int size = population.size();
+		/*
+		 * enters the main loop and repeats until a given number of generations
+		 * or the stopping criterion
+		 */
+		while (!isStopped()) {
+			nextGeneration();
+		}
+		finish();
 
-        ArrayList<Double> fitnessList = new ArrayList<>();
-        for(Chromosome chromosome : population){
-            fitnessValue = fitness(chromosome);
-            total += fitnessValue;
-            fitnessList.add(fitnessValue);
-        }
+		return bestSol;
+	}
 
-        while (parents.size() < popSize) {
-            double pointer1 = rng.nextDouble();
-            double pointer2 = pointer1 + 0.5;
-            if (pointer2 > 1.0){
-                pointer2 -= 1.0;
-            }
+	/**
+	 * Starts a run of the GA, which then advances one generation at a time
+	 * through {@link #nextGeneration}. It initializes and evaluates the
+	 * population and finds its best solution.
+	 */
+	protected void initialize() {
+		startTime = System.nanoTime();
+		if (stoppingCriterion != null)
+			stoppingCriterion.start(this);
 
-            double start;
-            double end = 0.0;
-            for(int i=0; i < size; i++){
-                start = end;
-                end += fitnessList.get(i)/total;
+		this.extraMutationsCounter = 0;
+		this.extraMutationsFallbacks = 0;
+		this.extraMutationsTime = 0;
+		this.evaluationsCounter = 0;
+		this.generation = 0;
 
-                if( (start <= pointer1 && pointer1 <= end) ||
-                    (start <= pointer2 && pointer2 <= end)){
-                    parents.add(population.get(i));
+		population = initializePopulation();
+		evaluatePopulation(population);
+		population.indexFitness();
 
-                    if(parents.size() == popSize) break;
-                }
-            }
-        }
+		offspringBuffer = new Population();
+		for (Chromosome c : population) {
+			offspringBuffer.add(c.copy());
+		}
+		parentsBuffer = new Population();
+		parentsBuffer.ensureCapacity(popSize);
 
-        return parents;
+		bestChromosome = population.get(population.getFitnessTree().best());
+		bestSol = decode(bestChromosome);
+		bestTime = System.nanoTime() - startTime;
+		bestGeneration = 0;
+		if (verbose)
+			getProgressLogger().publish(new ProgressLogger.Improvement(name, 0, bestSol.cost, bestTime, bestSol));
 
-    }
+		if (stats != null)
+			stats.start(this);
+	}
 
 	/**
-	 * The crossover step takes the parents generated by {@link #selectParents}
-	 * and recombine their genes to generate new chromosomes (offsprings). The
-	 * method being used is the 2-point crossover, which randomly selects two
-	 * locus for being the points of exchange (P1 and P2). For example:
+	 * Runs a single generation of the run started by {@link #initialize}:
+	 * parent selection, crossover, mutation, population update and best
+	 * solution update. The offsprings are written into the chromosomes of the
+	 * offspring buffer, so a generation allocates no chromosome at all.
 	 * 
-	 *                        P1            P2
-	 *    Parent 1: X1 ... Xi | Xi+1 ... Xj | Xj+1 ... Xn
-	 *    Parent 2: Y1 ... Yi | Yi+1 ... Yj | Yj+1 ... Yn
-	 * 
-	 * Offspring 1: X1 ... Xi | Yi+1 ... Yj | Xj+1 ... Xn
-	 * Offspring 2: Y1 ... Yi | Xi+1 ... Xj | Yj+1 ... Yn
-	 * 
-	 * @param parents
-	 *            The selected parents for crossover.
-	 * @return The resulting offsprings.
+	 * When a {@link GenerationListener} is set, the time of each phase is
+	 * measured, and the listener is called at the end of each window. When
+	 * {@link #verbose}, an improvement of the best solution is handed over to
+	 * the {@link ProgressLogger}, which prints it from another thread.
 	 */
-	protected Population crossover(Population parents) {
+	protected void nextGeneration() {
+
+		generation++;
+		GenerationStats stats = this.stats;
+		long time = stats == null ? 0 : System.nanoTime();
 
-		Population offsprings = new Population();
+		Population parents = parentsBuffer;
+		parents.clear();
+		selection.select(this, population, parents);
+		if (stats != null)
+			time = stats.lap(GenerationStats.Phase.SELECTION, time);
 
+		Population offsprings = offspringBuffer;
 		for (int i = 0; i < popSize; i = i + 2) {
+			Chromosome offspring1 = offsprings.get(i);
+			Chromosome offspring2 = offsprings.get(i + 1);
+			crossover.crossover(this, parents.get(i), parents.get(i + 1), offspring1, offspring2);
+			repair(offspring1);
+			repair(offspring2);
+		}
+		if (stats != null)
+			time = stats.lap(GenerationStats.Phase.CROSSOVER, time);
 
-			Chromosome parent1 = parents.get(i);
-			Chromosome parent2 = parents.get(i + 1);
+		for (int i = 0; i < popSize; i++) {
+			mutation.mutate(this, offsprings.get(i));
+		}
+		if (stats != null)
+			time = stats.lap(GenerationStats.Phase.MUTATION, time);
 
-			int crosspoint1 = rng.nextInt(chromosomeSize + 1);
-			int crosspoint2 = crosspoint1 + rng.nextInt((chromosomeSize + 1) - crosspoint1);
+		evaluatePopulation(offsprings);
+		if (stats != null)
+			time = stats.lap(GenerationStats.Phase.EVALUATION, time);
 
-			Chromosome offspring1 = new Chromosome();
-			Chromosome offspring2 = new Chromosome();
+		Population newpopulation = replacement.replace(this, population, offsprings);
 
-			for (int j = 0; j < chromosomeSize; j++) {
-				if (j >= crosspoint1 && j < crosspoint2) {
-					offspring1.add(parent2.get(j));
-					offspring2.add(parent1.get(j));
-				} else {
-					offspring1.add(parent1.get(j));
-					offspring2.add(parent2.get(j));
-				}
-			}
+		/* the previous population is recycled as the next offspring buffer */
+		if (newpopulation != population) {
+			offspringBuffer = population;
+			population = newpopulation;
+		}
+		if (stats != null)
+			time = stats.lap(GenerationStats.Phase.REPLACEMENT, time);
+
+		boolean improved = updateBestSolution();
+		if (stats != null) {
+			stats.lap(GenerationStats.Phase.BEST_TRACKING, time);
+			if (stats.endGeneration() == generationWindow)
+				publishStats();
+		}
 
-			if (performExtraMutations) {
-				extraMutations(offspring1);
-				extraMutations(offspring2);
-			}
+		if (improved && verbose)
+			getProgressLogger().publish(new ProgressLogger.Improvement(name, generation, bestSol.cost, bestTime, bestSol));
+	}
 
-			if (removeToMakeFeasible) {
-				removeUntilFeasible(offspring1);
-				removeUntilFeasible(offspring2);
-			}
+	/**
+	 * Ends the run started by {@link #initialize}, giving the measures of an
+	 * incomplete window to the {@link GenerationListener}, if any, and
+	 * printing the last improvement of the best solution.
+	 */
+	protected void finish() {
+		if (stats != null && stats.getGenerations() > 0)
+			publishStats();
+		if (verbose)
+			getProgressLogger().flush(name);
+	}
 
-			offsprings.add(offspring1);
-			offsprings.add(offspring2);
+	/**
+	 * Gives the measures of the current window to the listener, and starts a
+	 * new window.
+	 */
+	private void publishStats() {
+		stats.end(this);
+		generationListener.windowCompleted(this, stats);
+		stats.start(this);
+	}
 
+	/**
+	 * Runs the {@link RepairOperator}, if any, on an offspring. This is done
+	 * after the crossover and by the {@link MutationOperator}.
+	 *
+	 * @param chromosome
+	 *            The offspring being repaired.
+	 */
+	protected void repair(Chromosome chromosome) {
+		if (repair == null)
+			return;
+		if (stats == null) {
+			repair.repair(this, chromosome);
+		} else {
+			long start = System.nanoTime();
+			repair.repair(this, chromosome);
+			stats.addRepair(System.nanoTime() - start);
 		}
-
-		return offsprings;
-
 	}
 
+	/**
+	 * @return true if the run started by {@link #initialize} must not run
+	 *         more generations, i.e. it reached its number of generations or
+	 *         its stopping criterion is met.
+	 */
+	protected boolean isStopped() {
+		return generation >= generations || (stoppingCriterion != null && stoppingCriterion.isMet(this));
+	}
 
 	/**
-	 * The crossover step takes the parents generated by {@link #selectParents}
-	 * and recombine their genes to generate new chromosomes (offsprings). The
-	 * method being used is the uniform crossover, which randomly selects the
-	 * allele from parent P1 or parent P2 and exchange. For example:
-     *
-     *    Crossover Mask:   0  0  1  0  1  0      1
-     *    Parent 1:         X1 X2 X3 X4 X5 X6 ... Xn
-     *    Parent 2:         Y1 Y2 Y3 Y4 Y5 Y6 ... Yn
-     *
-     *    Offspring 1:      X1 X2 Y3 X4 Y5 X6 ... Yn
-     *    Offspring 2:      Y1 Y2 X3 Y4 X5 X6 ... Xn
-	 * @param parents
-	 *            The selected parents for crossover.
-	 * @return The resulting offsprings.
+	 * @return The current population of the run started by
+	 *         {@link #initialize}.
 	 */
-	protected Population uniformCrossover(Population parents) {
-		Population offsprings = new Population();
+	protected Population getPopulation() {
+		return population;
+	}
 
-		for (int i = 0; i < popSize; i = i + 2) {
+	/**
+	 * @return The number of generations run since {@link #initialize}.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
 
-			Chromosome parent1 = parents.get(i);
-			Chromosome parent2 = parents.get(i + 1);
+	/**
+	 * @return The time from the start of the run to the generation at which
+	 *         its best solution was found, in seconds.
+	 */
+	public double getTimeToBest() {
+		return bestTime / 1e9;
+	}
 
-			Chromosome offspring1 = new Chromosome();
-			Chromosome offspring2 = new Chromosome();
+	/**
+	 * @return The generation at which the best solution of the run was found.
+	 */
+	public int getBestGeneration() {
+		return bestGeneration;
+	}
 
-			for (int j = 0; j < chromosomeSize; j++) {
-			    int whichParent = rng.nextInt(2);
-				if (whichParent==1) {
-					offspring1.add(parent2.get(j));
-					offspring2.add(parent1.get(j));
-				} else {
-					offspring1.add(parent1.get(j));
-					offspring2.add(parent2.get(j));
-				}
-			}
+	/**
+	 * Takes the best chromosomes of the current population, to be sent to
+	 * other GAs solving the same problem (e.g. the islands of an
+	 * {@link IslandGA}). The population is not changed.
+	 * 
+	 * The chromosomes are copies, so they stay valid when this GA receives
+	 * immigrants before they are sent, which may overwrite the originals.
+	 * 
+	 * @param count
+	 *            The number of chromosomes being taken.
+	 * @return Copies of the best chromosomes, from the best to the worst.
+	 */
+	protected List<Chromosome> getEmigrants(int count) {
 
-			if (performExtraMutations) {
-				extraMutations(offspring1);
-				extraMutations(offspring2);
+		List<Chromosome> sorted = new ArrayList<Chromosome>(population);
+		Collections.sort(sorted, new Comparator<Chromosome>() {
+			@Override
+			public int compare(Chromosome c1, Chromosome c2) {
+				return Double.compare(getFitness(c2), getFitness(c1));
 			}
+		});
 
-			if (removeToMakeFeasible) {
-				removeUntilFeasible(offspring1);
-				removeUntilFeasible(offspring2);
-			}
+		List<Chromosome> emigrants = new ArrayList<Chromosome>(Math.min(count, sorted.size()));
+		for (Chromosome c : sorted.subList(0, Math.min(count, sorted.size()))) {
+			emigrants.add(c.copy());
+		}
+		return emigrants;
+	}
 
-			offsprings.add(offspring1);
-			offsprings.add(offspring2);
+	/**
+	 * Inserts chromosomes coming from another GA solving the same problem into
+	 * the current population. Each migrant replaces the worst chromosome of
+	 * the population, if it is better. The migrants are copied into the
+	 * chromosomes of this GA, so they are not changed or shared.
+	 * 
+	 * @param migrants
+	 *            The chromosomes being inserted.
+	 */
+	protected void receiveImmigrants(List<Chromosome> migrants) {
 
+		FitnessTree tree = population.getFitnessTree();
+		for (Chromosome migrant : migrants) {
+			int worse = tree.worst();
+			if (getFitness(migrant) > tree.get(worse))
+				population.replace(worse, migrant);
 		}
 
-		return offsprings;
+		updateBestSolution();
 	}
+
 	/**
-	 * The mutation step takes the offsprings generated by {@link #crossover}
-	 * and to each possible locus, perform a mutation with the expected
-	 * frequency given by {@link #mutationRate}.
+	 * Updates {@link #bestChromosome} with the best chromosome of the current
+	 * population, and {@link #bestSol} if it improves the best solution.
 	 * 
-	 * @param offsprings
-	 *            The offsprings chromosomes generated by the
-	 *            {@link #crossover}.
-	 * @return The mutated offsprings.
+	 * @return true if the best solution was improved.
 	 */
-	protected Population mutate(Population offsprings) {
+	private boolean updateBestSolution() {
 
-		for (Chromosome c : offsprings) {
-			for (int locus = 0; locus < chromosomeSize; locus++) {
-				if (rng.nextDouble() < mutationRate) {
-					mutateGene(c, locus);
+		bestChromosome = population.get(population.getFitnessTree().best());
 
-					if (performExtraMutations) {
-						extraMutations(c);
-					}
-
-					if (removeToMakeFeasible) {
-						removeUntilFeasible(c);
-					}
-				}
-			}
+		if (getFitness(bestChromosome) > bestSol.cost) {
+			bestSol = decode(bestChromosome);
+			bestTime = System.nanoTime() - startTime;
+			bestGeneration = generation;
+			return true;
 		}
 
-		return offsprings;
-	}
-
-	private void extraMutations(Chromosome c) {
-		while (fitness(c) <= -5000)
-		{
-			for (int locus = 0; locus < chromosomeSize; locus++) {
-				if (rng.nextDouble() < mutationRate) {
-					mutateGene(c, locus);
-					extraMutationsCounter++;
-				}
-			}
-		}
+		return false;
 	}
 
 	/**
-	 * Updates the population that will be considered for the next GA
-	 * generation. The method used for updating the population is the elitist,
-	 * which simply takes the worse chromosome from the offsprings and replace
-	 * it with the best chromosome from the previous generation.
+	 * Randomly generates an initial population to start the GA.
 	 * 
-	 * @param offsprings
-	 *            The offsprings generated by {@link #crossover}.
-	 * @return The updated population for the next generation.
+	 * @return A population of chromosomes.
 	 */
-	protected Population selectPopulation(Population offsprings) {
-
-		Chromosome worse = getWorseChromosome(offsprings);
-		if (fitness(worse) < fitness(bestChromosome)) {
-			offsprings.remove(worse);
-			offsprings.add(bestChromosome);
-		}
+	protected Population initializePopulation() {
 
-		return offsprings;
-	}
+		Population population = new Population();
 
-    /**
-     * Updates the population that will be considered for the next GA
-     * generation. The method used for updating the population is the Steady-State. It replaces
-     * the worst and a random individuals from the current population by the 2 best
-     * individuals from the offspring
-     *
-     * @param offsprings
-     *            The offsprings generated by {@link #crossover}.
-     * @return The updated population for the next generation.
-     */
-    protected Population selectPopulationSteadyState(Population currPopulation,
-                                                     Population offsprings) {
+		while (population.size() < popSize) {
+			population.add(generateRandomChromosome());
+		}
 
-	    int indexRemoval = rng.nextInt(currPopulation.size());
+		return population;
 
-        Chromosome currWorse = getWorseChromosome(currPopulation);
-        Chromosome randomIndiv = currPopulation.get(indexRemoval);
+	}
 
-        Chromosome newBest1 = getBestChromosome(offsprings);
-        offsprings.remove(newBest1);
+	/**
+	 * Given a population of chromosome, takes the best chromosome according to
+	 * the fitness evaluation.
+	 * 
+	 * @param population
+	 *            A population of chromosomes.
+	 * @return The best chromosome among the population.
+	 */
+	protected Chromosome getBestChromosome(Population population) {
 
-        Chromosome newBest2 = getBestChromosome(offsprings);
+		double bestFitness = Double.NEGATIVE_INFINITY;
+		Chromosome bestChromosome = null;
+		for (Chromosome c : population) {
+			double fitness = getFitness(c);
+			if (fitness > bestFitness) {
+				bestFitness = fitness;
+				bestChromosome = c;
+			}
+		}
 
-        double bestCurrFitness = fitness(bestChromosome);
+		return bestChromosome;
+	}
 
-        if (fitness(currWorse) < bestCurrFitness) {
-            currPopulation.remove(currWorse);
-            currPopulation.add(newBest1);
-        }
+	/**
+	 * Given a population of chromosome, takes the worst chromosome according to
+	 * the fitness evaluation.
+	 * 
+	 * @param population
+	 *            A population of chromosomes.
+	 * @return The worst chromosome among the population.
+	 */
+	protected Chromosome getWorseChromosome(Population population) {
 
-        if (fitness(randomIndiv) < bestCurrFitness) {
-            currPopulation.remove(randomIndiv);
-            currPopulation.add(newBest2);
-        }
+		double worseFitness = Double.POSITIVE_INFINITY;
+		Chromosome worseChromosome = null;
+		for (Chromosome c : population) {
+			double fitness = getFitness(c);
+			if (fitness < worseFitness) {
+				worseFitness = fitness;
+				worseChromosome = c;
+			}
+		}
 
-        return currPopulation;
-    }
+		return worseChromosome;
+	}
 
 }
@@ -0,0 +1,33 @@
+package metaheuristics.ga;
+
+/**
+ * The crossover step of a GA. It recombines the genes of a pair of parents
+ * into a pair of offsprings, whose chromosomes are recycled from a previous
+ * generation and must be completely overwritten.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public interface CrossoverOperator<G extends Number, F> {
+
+	/**
+	 * Generates two offsprings from two parents. The parents are not modified.
+	 *
+	 * @param ga
+	 *            The GA running the operator.
+	 * @param parent1
+	 *            The first parent.
+	 * @param parent2
+	 *            The second parent, which may be the first one.
+	 * @param offspring1
+	 *            The chromosome the first offspring is written into.
+	 * @param offspring2
+	 *            The chromosome the second offspring is written into.
+	 */
+	public abstract void crossover(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome parent1, AbstractGA<G, F>.Chromosome parent2,
+			AbstractGA<G, F>.Chromosome offspring1, AbstractGA<G, F>.Chromosome offspring2);
+
+}
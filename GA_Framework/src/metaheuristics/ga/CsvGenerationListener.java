@@ -0,0 +1,100 @@
+package metaheuristics.ga;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes the {@link GenerationStats} of each window as a line of a CSV file,
+ * after a header line. The times are in milliseconds.
+ *
+ *    try (CsvGenerationListener&lt;Integer, Integer&gt; csv = new CsvGenerationListener&lt;Integer, Integer&gt;("results/generations.csv")) {
+ *        ga.setGenerationListener(csv, 10);
+ *        ga.solve();
+ *    }
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class CsvGenerationListener<G extends Number, F> implements GenerationListener<G, F>, Closeable {
+
+	private final Writer out;
+
+	/**
+	 * @param filename
+	 *            Name of the file, which is overwritten.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public CsvGenerationListener(String filename) throws IOException {
+		this(new BufferedWriter(new FileWriter(filename)));
+	}
+
+	/**
+	 * @param out
+	 *            The writer of the lines, closed by {@link #close}.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public CsvGenerationListener(Writer out) throws IOException {
+		this.out = out;
+		StringBuilder header = new StringBuilder("firstGeneration,lastGeneration");
+		for (GenerationStats.Phase phase : GenerationStats.Phase.values()) {
+			String[] words = phase.name().toLowerCase().split("_");
+			header.append(',').append(words[0]);
+			for (int w = 1; w < words.length; w++) {
+				header.append(Character.toUpperCase(words[w].charAt(0))).append(words[w].substring(1));
+			}
+			header.append("Ms");
+		}
+		header.append(",evaluations,cacheHitRate,extraMutations,feasibleRatio,diversity,bestFitness,meanFitness,worstFitness,bestCost\n");
+		out.write(header.toString());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.GenerationListener#windowCompleted(metaheuristics
+	 * .ga.AbstractGA, metaheuristics.ga.GenerationStats)
+	 */
+	@Override
+	public void windowCompleted(AbstractGA<G, F> ga, GenerationStats stats) {
+		StringBuilder line = new StringBuilder();
+		line.append(stats.getFirstGeneration()).append(',').append(stats.getLastGeneration());
+		for (GenerationStats.Phase phase : GenerationStats.Phase.values()) {
+			line.append(',').append(stats.getNanos(phase) / 1e6);
+		}
+		line.append(',').append(stats.getEvaluations());
+		line.append(',').append(stats.getCacheHitRate());
+		line.append(',').append(stats.getExtraMutations());
+		line.append(',').append(stats.getFeasibleRatio());
+		line.append(',').append(stats.getDiversity());
+		line.append(',').append(stats.getBestFitness());
+		line.append(',').append(stats.getMeanFitness());
+		line.append(',').append(stats.getWorstFitness());
+		line.append(',').append(stats.getBestCost());
+		line.append('\n');
+		try {
+			out.write(line.toString());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+}
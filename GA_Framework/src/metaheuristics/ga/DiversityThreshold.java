@@ -0,0 +1,108 @@
+package metaheuristics.ga;
+
+/**
+ * Stops a run once its population has converged, i.e. when the diversity of
+ * the population falls below a threshold. The diversity is the mean Hamming
+ * distance between the chromosomes and the best one, as a fraction of the
+ * chromosome size: 0 when all the chromosomes are equal, and about 0.5 for a
+ * random binary population. Since it takes a pass over the whole population,
+ * it is only measured every {@link #checkInterval} generations.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class DiversityThreshold<G extends Number, F> implements StoppingCriterion<G, F> {
+
+	/**
+	 * the diversity below which the run stops
+	 */
+	private final double minDiversity;
+
+	/**
+	 * the number of generations between two measures of the diversity
+	 */
+	private final int checkInterval;
+
+	/**
+	 * the generation at which the diversity is measured next
+	 */
+	private int nextCheck;
+
+	private boolean met;
+
+	/**
+	 * Creates a threshold checked every 10 generations.
+	 *
+	 * @param minDiversity
+	 *            The diversity below which the run stops, between 0 and 1.
+	 */
+	public DiversityThreshold(double minDiversity) {
+		this(minDiversity, 10);
+	}
+
+	/**
+	 * @param minDiversity
+	 *            The diversity below which the run stops, between 0 and 1.
+	 * @param checkInterval
+	 *            The number of generations between two measures of the
+	 *            diversity.
+	 */
+	public DiversityThreshold(double minDiversity, int checkInterval) {
+		if (checkInterval < 1)
+			throw new IllegalArgumentException("The check interval must be positive: " + checkInterval);
+		this.minDiversity = minDiversity;
+		this.checkInterval = checkInterval;
+	}
+
+	public double getMinDiversity() {
+		return minDiversity;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.StoppingCriterion#start(metaheuristics.ga.
+	 * AbstractGA)
+	 */
+	@Override
+	public void start(AbstractGA<G, F> ga) {
+		nextCheck = 0;
+		met = false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.StoppingCriterion#isMet(metaheuristics.ga.
+	 * AbstractGA)
+	 */
+	@Override
+	public boolean isMet(AbstractGA<G, F> ga) {
+		if (!met && ga.getGeneration() >= nextCheck) {
+			nextCheck = ga.getGeneration() + checkInterval;
+			met = diversity(ga) < minDiversity;
+		}
+		return met;
+	}
+
+	/**
+	 * Measures the diversity of the current population of a GA.
+	 *
+	 * @param ga
+	 *            The GA being run.
+	 * @return The mean Hamming distance between the chromosomes of the
+	 *         current population and the best one, over the chromosome size.
+	 */
+	public static <G extends Number, F> double diversity(AbstractGA<G, F> ga) {
+		AbstractGA<G, F>.Population population = ga.getPopulation();
+		long distance = 0;
+		for (AbstractGA<G, F>.Chromosome c : population) {
+			distance += c.distance(ga.bestChromosome);
+		}
+		return (double) distance / ((double) population.size() * ga.chromosomeSize);
+	}
+
+}
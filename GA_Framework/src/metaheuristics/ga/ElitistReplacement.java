@@ -0,0 +1,41 @@
+package metaheuristics.ga;
+
+/**
+ * The elitist population update, which simply takes the worse chromosome from
+ * the offsprings and replace it with the best chromosome from the previous
+ * generation. The best chromosome is copied, since the previous population is
+ * recycled.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class ElitistReplacement<G extends Number, F> implements ReplacementOperator<G, F> {
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.ReplacementOperator#replace(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Population,
+	 * metaheuristics.ga.AbstractGA.Population)
+	 */
+	@Override
+	public AbstractGA<G, F>.Population replace(AbstractGA<G, F> ga, AbstractGA<G, F>.Population population, AbstractGA<G, F>.Population offsprings) {
+
+		FitnessTree currTree = population.getFitnessTree();
+		AbstractGA<G, F>.Chromosome best = population.get(currTree.best());
+
+		offsprings.indexFitness();
+		FitnessTree tree = offsprings.getFitnessTree();
+
+		int worse = tree.worst();
+		if (tree.get(worse) < currTree.get(currTree.best())) {
+			offsprings.replace(worse, best);
+		}
+
+		return offsprings;
+	}
+
+}
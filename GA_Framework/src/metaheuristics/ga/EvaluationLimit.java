@@ -0,0 +1,44 @@
+package metaheuristics.ga;
+
+/**
+ * Stops a run once the number of fitness evaluations actually computed (see
+ * {@link AbstractGA#getEvaluationsCounter()}) reaches a budget. The budget is
+ * checked between generations, so the last generation may exceed it.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class EvaluationLimit<G extends Number, F> implements StoppingCriterion<G, F> {
+
+	/**
+	 * the budget of a run, in evaluations
+	 */
+	private final long maxEvaluations;
+
+	/**
+	 * @param maxEvaluations
+	 *            The budget of a run, in evaluations.
+	 */
+	public EvaluationLimit(long maxEvaluations) {
+		this.maxEvaluations = maxEvaluations;
+	}
+
+	public long getMaxEvaluations() {
+		return maxEvaluations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.StoppingCriterion#isMet(metaheuristics.ga.
+	 * AbstractGA)
+	 */
+	@Override
+	public boolean isMet(AbstractGA<G, F> ga) {
+		return ga.getEvaluationsCounter() >= maxEvaluations;
+	}
+
+}
@@ -0,0 +1,81 @@
+package metaheuristics.ga;
+
+/**
+ * A repair that keeps mutating an infeasible chromosome until it becomes
+ * feasible. Each mutation changes a single gene, drawn among the ones taking
+ * part in a violated constraint (see {@link AbstractGA#drawForbiddenValue}),
+ * so the feasibility is checked without evaluating the chromosome. After
+ * {@link #maxMutations} mutations, the chromosome is handed over to the
+ * deterministic {@link AbstractGA#removeUntilFeasible}.
+ *
+ * The number of genes mutated, the number of fallbacks and the time spent
+ * are given by {@link AbstractGA#getExtraMutationsCounter},
+ * {@link AbstractGA#getExtraMutationsFallbacks} and
+ * {@link AbstractGA#getExtraMutationsTime}.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class ExtraMutationsRepair<G extends Number, F> implements RepairOperator<G, F> {
+
+	/**
+	 * the number of mutations tried on a chromosome before falling back to
+	 * {@link AbstractGA#removeUntilFeasible}
+	 */
+	private final int maxMutations;
+
+	/**
+	 * Creates a repair that tries up to 100 mutations per chromosome.
+	 */
+	public ExtraMutationsRepair() {
+		this(100);
+	}
+
+	/**
+	 * @param maxMutations
+	 *            The number of mutations tried on a chromosome before falling
+	 *            back to {@link AbstractGA#removeUntilFeasible}.
+	 */
+	public ExtraMutationsRepair(int maxMutations) {
+		if (maxMutations < 0)
+			throw new IllegalArgumentException("The number of mutations must not be negative: " + maxMutations);
+		this.maxMutations = maxMutations;
+	}
+
+	public int getMaxMutations() {
+		return maxMutations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.RepairOperator#repair(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Chromosome)
+	 */
+	@Override
+	public void repair(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome chromosome) {
+
+		if (ga.findForbiddenValue(chromosome) == null)
+			return;
+
+		long startTime = System.nanoTime();
+		int mutations = 0;
+		Integer locus;
+		while ((locus = ga.drawForbiddenValue(chromosome)) != null) {
+			if (mutations == maxMutations) {
+				ga.removeUntilFeasible(chromosome);
+				ga.extraMutationsFallbacks++;
+				break;
+			}
+			ga.mutateGene(chromosome, locus);
+			mutations++;
+		}
+
+		ga.extraMutationsCounter += mutations;
+		ga.extraMutationsTime += System.nanoTime() - startTime;
+	}
+
+}
@@ -0,0 +1,101 @@
+package metaheuristics.ga;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of fitness values shared across generations. It maps a
+ * chromosome (compared by its genes) to its fitness, so that duplicate
+ * individuals, which are common once the population starts to converge, are
+ * evaluated only once. When the capacity is reached the least recently used
+ * entry is discarded.
+ *
+ * @author ccavellucci, fusberti
+ * @param <K>
+ *            Type of the key identifying a chromosome. It must implement a
+ *            content based {@link Object#equals} and {@link Object#hashCode}.
+ */
+public class FitnessCache<K> {
+
+	/**
+	 * the maximum number of entries kept by the cache
+	 */
+	private final int capacity;
+
+	/**
+	 * the entries, in access order
+	 */
+	private final LinkedHashMap<K, Double> entries;
+
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * The constructor for the FitnessCache class.
+	 *
+	 * @param capacity
+	 *            The maximum number of entries kept by the cache.
+	 */
+	@SuppressWarnings("serial")
+	public FitnessCache(final int capacity) {
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<K, Double>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Double> eldest) {
+				return size() > FitnessCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Looks up the fitness of a chromosome.
+	 *
+	 * @param key
+	 *            The chromosome being looked up.
+	 * @return The cached fitness, or null if the chromosome is not cached.
+	 */
+	public synchronized Double get(K key) {
+		Double fitness = entries.get(key);
+		if (fitness == null)
+			misses++;
+		else
+			hits++;
+		return fitness;
+	}
+
+	/**
+	 * Stores the fitness of a chromosome. The key must not be modified
+	 * afterwards, so callers should store a copy of the chromosome.
+	 *
+	 * @param key
+	 *            The chromosome whose fitness was evaluated.
+	 * @param fitness
+	 *            The fitness of the chromosome.
+	 */
+	public synchronized void put(K key, Double fitness) {
+		entries.put(key, fitness);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		hits = 0;
+		misses = 0;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+}
@@ -0,0 +1,102 @@
+package metaheuristics.ga;
+
+import java.util.Arrays;
+
+/**
+ * The ways the fitness of a population is turned into the non-negative
+ * weights used by the fitness proportionate selection. The raw fitness cannot
+ * be used directly, since it may be negative (e.g. the penalty given to
+ * infeasible chromosomes), and its proportions depend on the offset of the
+ * objective function.
+ *
+ * @author ccavellucci, fusberti
+ */
+public enum FitnessScaling {
+
+	/**
+	 * the weight is the fitness minus the lowest fitness of the population,
+	 * so the worst chromosome is never selected
+	 */
+	WINDOWING {
+		@Override
+		public void scale(double[] values, int size, double[] scratch) {
+			double min = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < size; i++) {
+				min = Math.min(min, values[i]);
+			}
+			for (int i = 0; i < size; i++) {
+				values[i] -= min;
+			}
+		}
+	},
+
+	/**
+	 * the weight is 1 + (f - mean) / (2 * sigma), or zero if negative, so the
+	 * selection pressure does not depend on the spread of the fitness
+	 */
+	SIGMA {
+		@Override
+		public void scale(double[] values, int size, double[] scratch) {
+			double mean = 0.0;
+			for (int i = 0; i < size; i++) {
+				mean += values[i];
+			}
+			mean /= size;
+			double variance = 0.0;
+			for (int i = 0; i < size; i++) {
+				variance += (values[i] - mean) * (values[i] - mean);
+			}
+			double sigma = Math.sqrt(variance / size);
+			for (int i = 0; i < size; i++) {
+				values[i] = sigma == 0.0 ? 1.0 : Math.max(0.0, 1.0 + (values[i] - mean) / (2.0 * sigma));
+			}
+		}
+	},
+
+	/**
+	 * the weight is the rank of the fitness, from 1 for the worst chromosome
+	 * to n for the best one, tied chromosomes sharing their average rank
+	 */
+	RANK {
+		@Override
+		public void scale(double[] values, int size, double[] scratch) {
+			System.arraycopy(values, 0, scratch, 0, size);
+			Arrays.sort(scratch, 0, size);
+			for (int i = 0; i < size; i++) {
+				int lower = bound(scratch, size, values[i], false);
+				int upper = bound(scratch, size, values[i], true);
+				values[i] = (lower + upper + 1) / 2.0;
+			}
+		}
+	};
+
+	/**
+	 * Replaces the fitness values of a population by their weights.
+	 *
+	 * @param values
+	 *            The fitness of each chromosome, replaced by its weight.
+	 * @param size
+	 *            The number of chromosomes.
+	 * @param scratch
+	 *            An array of at least size elements that may be overwritten.
+	 */
+	public abstract void scale(double[] values, int size, double[] scratch);
+
+	/**
+	 * Gives the position of the first element of a sorted array that is
+	 * greater than (or, if not upper, not less than) a given value.
+	 */
+	private static int bound(double[] sorted, int size, double value, boolean upper) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted[mid] < value || (upper && sorted[mid] == value))
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+}
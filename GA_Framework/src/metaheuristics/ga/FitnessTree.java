@@ -0,0 +1,137 @@
+package metaheuristics.ga;
+
+/**
+ * A tournament tree over the fitness values of a population, in which each
+ * chromosome is identified by its position. It gives the positions of the
+ * best and of the worst chromosomes in O(1) and, when a single chromosome is
+ * replaced, replays only the tournaments on the path from its leaf to the
+ * root, in O(log n). Ties are won by the lowest position, as in a linear scan.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class FitnessTree {
+
+	/**
+	 * the number of positions
+	 */
+	private final int size;
+
+	/**
+	 * the number of leaves, the smallest power of two not below the size
+	 */
+	private final int leaves;
+
+	/**
+	 * the fitness of each position
+	 */
+	private final double[] fitness;
+
+	/**
+	 * the winners of the tournaments for the best and for the worst fitness.
+	 * Node 1 is the root, node k has children 2k and 2k + 1, and position i is
+	 * the leaf (leaves + i). Empty leaves hold -1.
+	 */
+	private final int[] best;
+	private final int[] worst;
+
+	/**
+	 * The constructor for the FitnessTree class. All positions start with a
+	 * fitness of zero.
+	 *
+	 * @param size
+	 *            The number of positions, i.e. the size of the population.
+	 */
+	public FitnessTree(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("The tree must have at least one position: " + size);
+		this.size = size;
+		this.leaves = Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+		this.fitness = new double[size];
+		this.best = new int[2 * leaves];
+		this.worst = new int[2 * leaves];
+		for (int i = 0; i < leaves; i++) {
+			best[leaves + i] = worst[leaves + i] = i < size ? i : -1;
+		}
+		build();
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The fitness of the given position.
+	 */
+	public double get(int index) {
+		return fitness[index];
+	}
+
+	/**
+	 * Sets the fitness of a position without replaying the tournaments, which
+	 * must then be replayed by {@link #build()}. This is meant to load a whole
+	 * population at once.
+	 *
+	 * @param index
+	 *            The position of the chromosome.
+	 * @param value
+	 *            Its fitness.
+	 */
+	public void put(int index, double value) {
+		fitness[index] = value;
+	}
+
+	/**
+	 * Replays all the tournaments, in O(n).
+	 */
+	public void build() {
+		for (int node = leaves - 1; node >= 1; node--) {
+			play(node);
+		}
+	}
+
+	/**
+	 * Changes the fitness of a position and replays the tournaments on the
+	 * path from its leaf to the root, in O(log n).
+	 *
+	 * @param index
+	 *            The position of the chromosome.
+	 * @param value
+	 *            Its new fitness.
+	 */
+	public void update(int index, double value) {
+		fitness[index] = value;
+		for (int node = (leaves + index) >>> 1; node >= 1; node >>>= 1) {
+			play(node);
+		}
+	}
+
+	/**
+	 * @return The position of the chromosome with the highest fitness.
+	 */
+	public int best() {
+		return best[1];
+	}
+
+	/**
+	 * @return The position of the chromosome with the lowest fitness.
+	 */
+	public int worst() {
+		return worst[1];
+	}
+
+	/**
+	 * Plays the tournaments of a node between the winners of its children. The
+	 * left child holds the lowest positions, so it wins the ties.
+	 */
+	private void play(int node) {
+
+		int left = best[2 * node];
+		int right = best[2 * node + 1];
+		best[node] = left < 0 || (right >= 0 && fitness[right] > fitness[left]) ? right : left;
+
+		left = worst[2 * node];
+		right = worst[2 * node + 1];
+		worst[node] = left < 0 || (right >= 0 && fitness[right] < fitness[left]) ? right : left;
+	}
+
+}
@@ -0,0 +1,46 @@
+package metaheuristics.ga;
+
+/**
+ * Receives the {@link GenerationStats} of a GA run, once per window of
+ * generations (see {@link AbstractGA#setGenerationListener}). Listeners are
+ * composed with {@link #andThen}, e.g. to export the same measures to a CSV
+ * file and to JFR.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public interface GenerationListener<G extends Number, F> {
+
+	/**
+	 * Called at the end of each window of generations, and at the end of the
+	 * run for the generations of an incomplete window.
+	 *
+	 * @param ga
+	 *            The GA being run.
+	 * @param stats
+	 *            The measures of the window, only valid during the call.
+	 */
+	public abstract void windowCompleted(AbstractGA<G, F> ga, GenerationStats stats);
+
+	/**
+	 * Gives a listener that calls this one and then another one.
+	 *
+	 * @param next
+	 *            The listener called after this one.
+	 * @return The composed listener.
+	 */
+	public default GenerationListener<G, F> andThen(final GenerationListener<G, F> next) {
+		final GenerationListener<G, F> first = this;
+		return new GenerationListener<G, F>() {
+			@Override
+			public void windowCompleted(AbstractGA<G, F> ga, GenerationStats stats) {
+				first.windowCompleted(ga, stats);
+				next.windowCompleted(ga, stats);
+			}
+		};
+	}
+
+}
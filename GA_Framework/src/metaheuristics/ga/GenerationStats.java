@@ -0,0 +1,231 @@
+package metaheuristics.ga;
+
+import java.util.Arrays;
+
+/**
+ * The measures of a window of consecutive generations of a GA run, given to
+ * a {@link GenerationListener} at the end of each window: the time spent in
+ * each phase of the generational loop and the number of evaluations, summed
+ * over the window, and a snapshot of the population at its end.
+ *
+ * The GA reuses the same instance for every window, so a listener must copy
+ * the values it keeps.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class GenerationStats {
+
+	/**
+	 * The phases of a generation, see {@link AbstractGA#nextGeneration}. The
+	 * time of the repairs is not included in the crossover and mutation
+	 * phases that run them.
+	 */
+	public enum Phase {
+		SELECTION, CROSSOVER, MUTATION, REPAIR, EVALUATION, REPLACEMENT, BEST_TRACKING
+	}
+
+	private static final Phase[] PHASES = Phase.values();
+
+	/**
+	 * the time spent in each phase, in nanoseconds
+	 */
+	private final long[] nanos = new long[PHASES.length];
+
+	/**
+	 * the time spent in repairs since the last {@link #lap}, which is not
+	 * counted in the phase ending with that lap
+	 */
+	private long pendingRepairNanos;
+
+	private int firstGeneration;
+	private int generations;
+
+	/**
+	 * the counters of the GA at the start of the window
+	 */
+	private long startEvaluations;
+	private long startCacheHits;
+	private long startCacheLookups;
+	private long startExtraMutations;
+
+	private long evaluations;
+	private long cacheHits;
+	private long cacheLookups;
+	private long extraMutations;
+
+	private double feasibleRatio;
+	private double diversity;
+	private double bestFitness;
+	private double meanFitness;
+	private double worstFitness;
+	private double bestCost;
+
+	/**
+	 * Adds the time elapsed since the previous lap to a phase, except the
+	 * time spent in repairs meanwhile.
+	 *
+	 * @param phase
+	 *            The phase that has just ended.
+	 * @param start
+	 *            The value of {@link System#nanoTime()} when it started.
+	 * @return The value of {@link System#nanoTime()} now, when the next phase
+	 *         starts.
+	 */
+	long lap(Phase phase, long start) {
+		long now = System.nanoTime();
+		nanos[phase.ordinal()] += now - start - pendingRepairNanos;
+		pendingRepairNanos = 0;
+		return now;
+	}
+
+	/**
+	 * Adds the time of a repair, run inside another phase.
+	 */
+	void addRepair(long repairNanos) {
+		nanos[Phase.REPAIR.ordinal()] += repairNanos;
+		pendingRepairNanos += repairNanos;
+	}
+
+	/**
+	 * Starts a new window, after the current generation of a GA.
+	 */
+	<G extends Number, F> void start(AbstractGA<G, F> ga) {
+		Arrays.fill(nanos, 0);
+		pendingRepairNanos = 0;
+		firstGeneration = ga.getGeneration() + 1;
+		generations = 0;
+		startEvaluations = ga.getEvaluationsCounter();
+		startExtraMutations = ga.getExtraMutationsCounter();
+		FitnessCache<?> cache = ga.getFitnessCache();
+		startCacheHits = cache == null ? 0 : cache.getHits();
+		startCacheLookups = cache == null ? 0 : cache.getHits() + cache.getMisses();
+	}
+
+	/**
+	 * Counts a generation of the window.
+	 *
+	 * @return The number of generations of the window so far.
+	 */
+	int endGeneration() {
+		return ++generations;
+	}
+
+	/**
+	 * Ends the window: takes the counters of the GA and measures its
+	 * population.
+	 */
+	<G extends Number, F> void end(AbstractGA<G, F> ga) {
+		evaluations = ga.getEvaluationsCounter() - startEvaluations;
+		extraMutations = ga.getExtraMutationsCounter() - startExtraMutations;
+		FitnessCache<?> cache = ga.getFitnessCache();
+		cacheHits = cache == null ? 0 : cache.getHits() - startCacheHits;
+		cacheLookups = cache == null ? 0 : cache.getHits() + cache.getMisses() - startCacheLookups;
+
+		AbstractGA<G, F>.Population population = ga.getPopulation();
+		int feasible = 0;
+		double sum = 0;
+		bestFitness = Double.NEGATIVE_INFINITY;
+		worstFitness = Double.POSITIVE_INFINITY;
+		for (AbstractGA<G, F>.Chromosome c : population) {
+			double fitness = ga.getFitness(c);
+			sum += fitness;
+			bestFitness = Math.max(bestFitness, fitness);
+			worstFitness = Math.min(worstFitness, fitness);
+			if (ga.findForbiddenValue(c) == null)
+				feasible++;
+		}
+		meanFitness = sum / population.size();
+		feasibleRatio = (double) feasible / population.size();
+		diversity = DiversityThreshold.diversity(ga);
+		bestCost = ga.bestSol.cost;
+	}
+
+	/**
+	 * @return The first generation of the window.
+	 */
+	public int getFirstGeneration() {
+		return firstGeneration;
+	}
+
+	/**
+	 * @return The last generation of the window.
+	 */
+	public int getLastGeneration() {
+		return firstGeneration + generations - 1;
+	}
+
+	/**
+	 * @return The number of generations of the window.
+	 */
+	public int getGenerations() {
+		return generations;
+	}
+
+	/**
+	 * @param phase
+	 *            A phase of the generational loop.
+	 * @return The time spent in the phase over the window, in nanoseconds.
+	 */
+	public long getNanos(Phase phase) {
+		return nanos[phase.ordinal()];
+	}
+
+	/**
+	 * @return The number of fitness values actually computed over the window.
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * @return The fraction of the lookups of the fitness cache that were hits
+	 *         over the window, or NaN if there was no lookup.
+	 */
+	public double getCacheHitRate() {
+		return cacheLookups == 0 ? Double.NaN : (double) cacheHits / cacheLookups;
+	}
+
+	/**
+	 * @return The number of genes mutated by the
+	 *         {@link ExtraMutationsRepair} over the window.
+	 */
+	public long getExtraMutations() {
+		return extraMutations;
+	}
+
+	/**
+	 * @return The fraction of feasible chromosomes in the population at the
+	 *         end of the window.
+	 */
+	public double getFeasibleRatio() {
+		return feasibleRatio;
+	}
+
+	/**
+	 * @return The diversity of the population at the end of the window, see
+	 *         {@link DiversityThreshold#diversity}.
+	 */
+	public double getDiversity() {
+		return diversity;
+	}
+
+	public double getBestFitness() {
+		return bestFitness;
+	}
+
+	public double getMeanFitness() {
+		return meanFitness;
+	}
+
+	public double getWorstFitness() {
+		return worstFitness;
+	}
+
+	/**
+	 * @return The cost of the best solution of the run so far.
+	 */
+	public double getBestCost() {
+		return bestCost;
+	}
+
+}
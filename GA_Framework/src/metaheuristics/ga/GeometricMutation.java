@@ -0,0 +1,64 @@
+package metaheuristics.ga;
+
+import java.util.SplittableRandom;
+
+/**
+ * The standard mutation, in which each locus is mutated independently with
+ * probability {@link AbstractGA#mutationRate}, sampled without one random
+ * draw per locus: the number of loci skipped before the next mutated one
+ * follows a geometric distribution, P(k) = (1 - p)^k * p, so it is drawn
+ * directly by inversion. The cost is proportional to the number of actual
+ * mutations, about 1 draw per chromosome for a rate of 1/n instead of n.
+ *
+ * The mutated loci have exactly the same distribution as with
+ * {@link PerLocusMutation}, and are also visited in increasing order, the
+ * chromosome being repaired after each mutated gene.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class GeometricMutation<G extends Number, F> implements MutationOperator<G, F> {
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.MutationOperator#mutate(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Chromosome)
+	 */
+	@Override
+	public void mutate(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome chromosome) {
+
+		if (ga.mutationRate <= 0.0)
+			return;
+
+		double logComplement = Math.log1p(-ga.mutationRate);
+		for (int locus = nextLocus(ga.rng, -1, logComplement); locus < ga.chromosomeSize; locus = nextLocus(ga.rng, locus, logComplement)) {
+			ga.mutateGene(chromosome, locus);
+			ga.repair(chromosome);
+		}
+
+	}
+
+	/**
+	 * Gives the next locus to be mutated when each locus is mutated
+	 * independently with probability p, by drawing the number of loci skipped
+	 * from a geometric distribution.
+	 *
+	 * @param rng
+	 *            The random number generator.
+	 * @param locus
+	 *            The last locus mutated, or -1 to start from the first one.
+	 * @param logComplement
+	 *            The value of log(1 - p), for 0 &lt; p &lt;= 1.
+	 * @return The next locus to be mutated, which may be beyond the last
+	 *         locus of the chromosome.
+	 */
+	static int nextLocus(SplittableRandom rng, int locus, double logComplement) {
+		double skipped = Math.floor(Math.log(1.0 - rng.nextDouble()) / logComplement);
+		return (int) Math.min(locus + 1 + skipped, Integer.MAX_VALUE);
+	}
+
+}
@@ -0,0 +1,365 @@
+package metaheuristics.ga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import solutions.Solution;
+
+/**
+ * Island model GA. Several GAs solving the same problem (the islands) evolve
+ * their own populations in parallel, each one with its own random stream and
+ * its own operator configuration. Every {@link #migrationInterval}
+ * generations the islands stop and each one sends copies of its best
+ * chromosomes to its neighbours in the {@link Topology}, where they replace
+ * the worst chromosomes.
+ *
+ * The islands run concurrently only between two migrations, and the
+ * migrations take place in the calling thread in a fixed order. The random
+ * streams of the islands are all derived from one master seed, so a run is
+ * reproducible regardless of the number of threads, unless it is stopped by
+ * a time limit.
+ *
+ * The stopping criterion of an island is queried only by the task running
+ * its generations, once before each generation, as in
+ * {@link AbstractGA#solve()}, so that stateful criteria (such as
+ * {@link TimeLimit} or {@link StagnationLimit}) see the same sequence of
+ * calls as in a run of the island alone.
+ *
+ * For example, the variants of GA_QBFPT may run as the islands of a single
+ * ring, instead of one after another:
+ *
+ *    IslandGA&lt;Integer, Integer&gt; islands = new IslandGA&lt;Integer, Integer&gt;(Topology.RING, 50, 2);
+ *    islands.addIsland(new GA_QBFPT(10000, 100, 0.01, "instances/qbf100"), false, false, false, false, false);
+ *    islands.addIsland(new GA_QBFPT(10000, 100, 0.01, "instances/qbf100"), false, true, false, false, false);
+ *    Solution&lt;Integer&gt; bestSol = islands.solve();
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class IslandGA<G extends Number, F> {
+
+	/**
+	 * The ways the islands are connected for the migrations.
+	 */
+	public enum Topology {
+		/**
+		 * island i sends its migrants to island i + 1, and the last one to the
+		 * first one
+		 */
+		RING,
+		/**
+		 * every island sends its migrants to all the other ones
+		 */
+		FULLY_CONNECTED,
+		/**
+		 * at each migration, every island sends its migrants to another island
+		 * drawn at random
+		 */
+		RANDOM
+	}
+
+	private final List<AbstractGA<G, F>> islands = new ArrayList<AbstractGA<G, F>>();
+
+	/**
+	 * how the islands are connected
+	 */
+	private final Topology topology;
+
+	/**
+	 * the number of generations between two migrations
+	 */
+	private final int migrationInterval;
+
+	/**
+	 * the number of chromosomes each island sends at a migration
+	 */
+	private final int migrationSize;
+
+	/**
+	 * the master seed, from which the seeds of the islands are drawn
+	 */
+	private long seed = 0;
+
+	/**
+	 * the time limit of a run of the whole model, in seconds. By default the
+	 * model has no limit of its own, and each island stops at its own
+	 * stopping criterion.
+	 */
+	private double maxTime = Double.POSITIVE_INFINITY;
+
+	/**
+	 * the executor running the islands, or null to use a pool with one thread
+	 * per island, up to the number of processors
+	 */
+	private ExecutorService executor = null;
+
+	/**
+	 * The constructor for the IslandGA class.
+	 *
+	 * @param topology
+	 *            How the islands are connected.
+	 * @param migrationInterval
+	 *            The number of generations between two migrations.
+	 * @param migrationSize
+	 *            The number of chromosomes each island sends at a migration.
+	 */
+	public IslandGA(Topology topology, int migrationInterval, int migrationSize) {
+		if (migrationInterval < 1)
+			throw new IllegalArgumentException("The migration interval must be positive: " + migrationInterval);
+		this.topology = topology;
+		this.migrationInterval = migrationInterval;
+		this.migrationSize = migrationSize;
+	}
+
+	/**
+	 * Adds an island to the model, which runs with the operators set in its
+	 * GA. All the islands must solve the same problem, and each GA must be
+	 * added only once.
+	 *
+	 * @param ga
+	 *            The GA evolving the population of the island. Its seed is
+	 *            replaced by one drawn from the master seed.
+	 */
+	public void addIsland(AbstractGA<G, F> ga) {
+		islands.add(ga);
+	}
+
+	/**
+	 * Adds an island to the model, with the operators given by flags (see
+	 * {@link AbstractGA#setOperators}).
+	 *
+	 * @param ga
+	 *            The GA evolving the population of the island.
+	 * @param isSUS
+	 *            Whether the island selects parents by SUS or by tournament.
+	 * @param isUniformCrossover
+	 *            Whether the island uses the uniform or the 2-point crossover.
+	 * @param isSteadyState
+	 *            Whether the island uses the steady-state or the elitist
+	 *            population update.
+	 * @param forceMutations
+	 *            Whether infeasible offsprings are mutated until feasible.
+	 * @param remove
+	 *            Whether infeasible offsprings are made feasible by removal.
+	 */
+	public void addIsland(AbstractGA<G, F> ga, boolean isSUS, boolean isUniformCrossover, boolean isSteadyState, boolean forceMutations, boolean remove) {
+		ga.setOperators(isSUS, isUniformCrossover, isSteadyState, forceMutations, remove);
+		addIsland(ga);
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public double getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * Sets a time limit shared by all the islands: every island stops at the
+	 * first generation that begins after the deadline, counted from the start
+	 * of {@link #solve()}, or earlier if its own stopping criterion is met.
+	 *
+	 * @param maxTime
+	 *            The time limit of a run of the model, in seconds, or
+	 *            {@link Double#POSITIVE_INFINITY} for no limit, which is the
+	 *            default.
+	 */
+	public void setMaxTime(double maxTime) {
+		if (!(maxTime >= 0.0))
+			throw new IllegalArgumentException("The time limit must be non-negative: " + maxTime);
+		this.maxTime = maxTime;
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the executor running the islands. The executor is not shut down by
+	 * the model.
+	 *
+	 * @param executor
+	 *            The executor, or null to use a pool with one thread per
+	 *            island, up to the number of processors, which is the default.
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Runs every island until it reaches its number of generations or its
+	 * stopping criterion, or the time limit of the model is exceeded, with a
+	 * migration every {@link #migrationInterval} generations.
+	 *
+	 * @return The best solution obtained by any of the islands.
+	 */
+	public Solution<F> solve() {
+
+		if (islands.isEmpty())
+			throw new IllegalStateException("No island was added to the model");
+
+		final long startTime = System.nanoTime();
+
+		SplittableRandom master = new SplittableRandom(seed);
+		for (AbstractGA<G, F> island : islands) {
+			island.setSeed(master.nextLong());
+		}
+
+		ExecutorService pool = executor;
+		if (pool == null)
+			pool = Executors.newFixedThreadPool(Math.min(islands.size(), Runtime.getRuntime().availableProcessors()));
+
+		/*
+		 * whether each island is stopped, written only by the tasks running the
+		 * island and read by this thread once they are done
+		 */
+		final boolean[] stopped = new boolean[islands.size()];
+
+		try {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for (int i = 0; i < islands.size(); i++) {
+				final int index = i;
+				final AbstractGA<G, F> island = islands.get(i);
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						island.initialize();
+						stopped[index] = isStopped(island, startTime);
+						return null;
+					}
+				});
+			}
+			runAll(pool, tasks);
+
+			tasks.clear();
+			for (int i = 0; i < islands.size(); i++) {
+				final int index = i;
+				final AbstractGA<G, F> island = islands.get(i);
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int g = 0; g < migrationInterval && !stopped[index]; g++) {
+							island.nextGeneration();
+							stopped[index] = isStopped(island, startTime);
+						}
+						return null;
+					}
+				});
+			}
+
+			while (isRunning(stopped)) {
+				runAll(pool, tasks);
+				if (isRunning(stopped) && islands.size() > 1)
+					migrate(master);
+			}
+			for (AbstractGA<G, F> island : islands) {
+				island.finish();
+			}
+		} finally {
+			if (executor == null)
+				pool.shutdown();
+		}
+
+		Solution<F> bestSol = null;
+		for (AbstractGA<G, F> island : islands) {
+			if (bestSol == null || island.bestSol.cost > bestSol.cost)
+				bestSol = island.bestSol;
+		}
+
+		return bestSol;
+	}
+
+	/**
+	 * Sends the best chromosomes of each island to its neighbours. The
+	 * emigrants of all the islands are taken before any of them receives
+	 * immigrants.
+	 *
+	 * @param master
+	 *            The random stream used by the {@link Topology#RANDOM}
+	 *            topology.
+	 */
+	private void migrate(SplittableRandom master) {
+
+		int k = islands.size();
+		List<List<AbstractGA<G, F>.Chromosome>> emigrants = new ArrayList<List<AbstractGA<G, F>.Chromosome>>(k);
+		for (AbstractGA<G, F> island : islands) {
+			emigrants.add(island.getEmigrants(migrationSize));
+		}
+
+		for (int i = 0; i < k; i++) {
+			switch (topology) {
+			case RING:
+				islands.get((i + 1) % k).receiveImmigrants(emigrants.get(i));
+				break;
+			case FULLY_CONNECTED:
+				for (int j = 0; j < k; j++) {
+					if (j != i)
+						islands.get(j).receiveImmigrants(emigrants.get(i));
+				}
+				break;
+			case RANDOM:
+				int j = master.nextInt(k - 1);
+				if (j >= i)
+					j++;
+				islands.get(j).receiveImmigrants(emigrants.get(i));
+				break;
+			}
+		}
+	}
+
+	/**
+	 * @return true if any island has generations left to run.
+	 */
+	private static boolean isRunning(boolean[] stopped) {
+		for (boolean s : stopped) {
+			if (!s)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Determines whether an island must stop before its next generation. It
+	 * must be called only by the task running the island, once per
+	 * generation, since it advances the stopping criterion of the island.
+	 *
+	 * @return true if the island has no generations left to run, its stopping
+	 *         criterion is met or the time limit of the model is exceeded.
+	 */
+	private boolean isStopped(AbstractGA<G, F> island, long startTime) {
+		return island.isStopped() || (System.nanoTime() - startTime) / 1e9 >= maxTime;
+	}
+
+	/**
+	 * Runs a batch of tasks on the executor and waits for all of them.
+	 */
+	private static void runAll(ExecutorService pool, List<Callable<Void>> tasks) {
+		try {
+			for (Future<Void> result : pool.invokeAll(tasks)) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running the islands", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException("Error while running the islands", e.getCause());
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package metaheuristics.ga;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emits the {@link GenerationStats} of each window as a JFR event,
+ * metaheuristics.ga.Generation, so that they show up in a flight recording
+ * along with the GC and JIT activity of the same period, e.g. with
+ *
+ *    java -XX:StartFlightRecording=filename=ga.jfr ...
+ *    jfr print --events metaheuristics.ga.Generation ga.jfr
+ *
+ * The event is not filled in while no recording enables it.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class JfrGenerationListener<G extends Number, F> implements GenerationListener<G, F> {
+
+	@Name("metaheuristics.ga.Generation")
+	@Label("GA Generation Window")
+	@Category("Genetic Algorithm")
+	@Description("The measures of a window of generations of a GA run")
+	@StackTrace(false)
+	static class GenerationEvent extends Event {
+
+		@Label("First Generation")
+		int firstGeneration;
+
+		@Label("Last Generation")
+		int lastGeneration;
+
+		@Label("Selection")
+		@Timespan
+		long selection;
+
+		@Label("Crossover")
+		@Timespan
+		long crossover;
+
+		@Label("Mutation")
+		@Timespan
+		long mutation;
+
+		@Label("Repair")
+		@Timespan
+		long repair;
+
+		@Label("Evaluation")
+		@Timespan
+		long evaluation;
+
+		@Label("Replacement")
+		@Timespan
+		long replacement;
+
+		@Label("Best Tracking")
+		@Timespan
+		long bestTracking;
+
+		@Label("Evaluations")
+		long evaluations;
+
+		@Label("Cache Hit Rate")
+		double cacheHitRate;
+
+		@Label("Extra Mutations")
+		long extraMutations;
+
+		@Label("Feasible Ratio")
+		double feasibleRatio;
+
+		@Label("Diversity")
+		double diversity;
+
+		@Label("Best Fitness")
+		double bestFitness;
+
+		@Label("Mean Fitness")
+		double meanFitness;
+
+		@Label("Worst Fitness")
+		double worstFitness;
+
+		@Label("Best Cost")
+		double bestCost;
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.GenerationListener#windowCompleted(metaheuristics
+	 * .ga.AbstractGA, metaheuristics.ga.GenerationStats)
+	 */
+	@Override
+	public void windowCompleted(AbstractGA<G, F> ga, GenerationStats stats) {
+		GenerationEvent event = new GenerationEvent();
+		if (!event.isEnabled())
+			return;
+
+		event.firstGeneration = stats.getFirstGeneration();
+		event.lastGeneration = stats.getLastGeneration();
+		event.selection = stats.getNanos(GenerationStats.Phase.SELECTION);
+		event.crossover = stats.getNanos(GenerationStats.Phase.CROSSOVER);
+		event.mutation = stats.getNanos(GenerationStats.Phase.MUTATION);
+		event.repair = stats.getNanos(GenerationStats.Phase.REPAIR);
+		event.evaluation = stats.getNanos(GenerationStats.Phase.EVALUATION);
+		event.replacement = stats.getNanos(GenerationStats.Phase.REPLACEMENT);
+		event.bestTracking = stats.getNanos(GenerationStats.Phase.BEST_TRACKING);
+		event.evaluations = stats.getEvaluations();
+		event.cacheHitRate = stats.getCacheHitRate();
+		event.extraMutations = stats.getExtraMutations();
+		event.feasibleRatio = stats.getFeasibleRatio();
+		event.diversity = stats.getDiversity();
+		event.bestFitness = stats.getBestFitness();
+		event.meanFitness = stats.getMeanFitness();
+		event.worstFitness = stats.getWorstFitness();
+		event.bestCost = stats.getBestCost();
+		event.commit();
+	}
+
+}
@@ -0,0 +1,27 @@
+package metaheuristics.ga;
+
+/**
+ * The mutation step of a GA, applied in place to each offspring. An operator
+ * that changes the genes one at a time should give the {@link RepairOperator}
+ * of the GA a chance to run after each change, through
+ * {@link AbstractGA#repair}.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public interface MutationOperator<G extends Number, F> {
+
+	/**
+	 * Mutates a chromosome.
+	 *
+	 * @param ga
+	 *            The GA running the operator.
+	 * @param chromosome
+	 *            The offspring being mutated.
+	 */
+	public abstract void mutate(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome chromosome);
+
+}
@@ -0,0 +1,35 @@
+package metaheuristics.ga;
+
+/**
+ * The standard mutation, which goes through each possible locus and performs
+ * a mutation with the expected frequency given by
+ * {@link AbstractGA#mutationRate}, through {@link AbstractGA#mutateGene}. The
+ * chromosome is repaired after each mutated gene.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class PerLocusMutation<G extends Number, F> implements MutationOperator<G, F> {
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.MutationOperator#mutate(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Chromosome)
+	 */
+	@Override
+	public void mutate(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome chromosome) {
+
+		for (int locus = 0; locus < ga.chromosomeSize; locus++) {
+			if (ga.rng.nextDouble() < ga.mutationRate) {
+				ga.mutateGene(chromosome, locus);
+				ga.repair(chromosome);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,249 @@
+package metaheuristics.ga;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import solutions.Solution;
+
+/**
+ * Prints the improvements of the best solution of GA runs from a background
+ * thread, so that the solver thread never formats nor writes them. A GA only
+ * publishes a small {@link Improvement} event to a lock-free queue, which the
+ * background thread drains every few milliseconds.
+ *
+ * Every improvement carries the name of the run it comes from (see
+ * {@link AbstractGA#getName()}), which starts each line. The number of lines
+ * printed for a run is limited by a minimum interval between two of its
+ * lines: the improvements of the run found meanwhile are coalesced, and only
+ * the latest one is printed, with the number of improvements it stands for.
+ * The latest improvement of each run is always printed eventually, and
+ * {@link #flush(String)} prints the pending one of a run at once.
+ *
+ * A logger may be shared by GAs running at the same time (e.g. the islands
+ * of an {@link IslandGA}), which must then have distinct names.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class ProgressLogger implements Closeable {
+
+	/**
+	 * An improvement of the best solution of a run.
+	 */
+	public static class Improvement {
+
+		/**
+		 * the name of the run
+		 */
+		public final String source;
+
+		public final int generation;
+		public final double cost;
+
+		/**
+		 * the time from the start of the run, in nanoseconds
+		 */
+		public final long elapsedNanos;
+
+		/**
+		 * the best solution, which the GA does not change afterwards
+		 */
+		public final Solution<?> solution;
+
+		public Improvement(String source, int generation, double cost, long elapsedNanos, Solution<?> solution) {
+			this.source = source;
+			this.generation = generation;
+			this.cost = cost;
+			this.elapsedNanos = elapsedNanos;
+			this.solution = solution;
+		}
+
+	}
+
+	/**
+	 * The latest improvement of a run not printed yet, the number of
+	 * improvements it stands for, and the time the last line of the run was
+	 * printed.
+	 */
+	private static class Pending {
+
+		private Improvement improvement = null;
+		private int coalesced = 0;
+		private long lastPrint;
+
+	}
+
+	/**
+	 * the longest time between two drains of the queue
+	 */
+	private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private static ProgressLogger defaultLogger;
+
+	private final PrintStream out;
+
+	/**
+	 * the minimum time between two lines, in nanoseconds
+	 */
+	private final long minIntervalNanos;
+
+	private final ConcurrentLinkedQueue<Improvement> queue = new ConcurrentLinkedQueue<Improvement>();
+	private final Thread consumer;
+	private volatile boolean closed = false;
+
+	/**
+	 * the runs printed less than the minimum interval ago or with an
+	 * improvement not printed yet, by name, only used while holding the lock
+	 * of the logger
+	 */
+	private final Map<String, Pending> pending = new LinkedHashMap<String, Pending>();
+
+	/**
+	 * @param out
+	 *            The stream the improvements are printed to.
+	 * @param minInterval
+	 *            The minimum time between two lines, in seconds, or 0 to print
+	 *            every improvement.
+	 */
+	public ProgressLogger(PrintStream out, double minInterval) {
+		if (minInterval < 0)
+			throw new IllegalArgumentException("The minimum interval must not be negative: " + minInterval);
+		this.out = out;
+		this.minIntervalNanos = (long) (minInterval * 1e9);
+		this.consumer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				consume();
+			}
+		}, "ga-progress");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	/**
+	 * @return The logger of the GAs that were not given one, which prints to
+	 *         the standard output at most 10 lines per second.
+	 */
+	public static synchronized ProgressLogger getDefault() {
+		if (defaultLogger == null)
+			defaultLogger = new ProgressLogger(System.out, 0.1);
+		return defaultLogger;
+	}
+
+	/**
+	 * Publishes an improvement, to be printed by the background thread. This
+	 * never blocks.
+	 *
+	 * @param improvement
+	 *            The improvement.
+	 */
+	public void publish(Improvement improvement) {
+		queue.offer(improvement);
+	}
+
+	/**
+	 * Prints the improvements published so far by every run, the latest one
+	 * of each run at least, and returns once they are written.
+	 */
+	public synchronized void flush() {
+		drain(null, true);
+		out.flush();
+	}
+
+	/**
+	 * Prints the improvements published so far by a run, the latest one at
+	 * least, and returns once they are written. The improvements of the other
+	 * runs are printed as usual.
+	 *
+	 * @param source
+	 *            The name of the run.
+	 */
+	public synchronized void flush(String source) {
+		drain(source, true);
+		out.flush();
+	}
+
+	/**
+	 * Stops the background thread, after printing the improvements published
+	 * so far.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(consumer);
+		try {
+			consumer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+
+	private void consume() {
+		while (!closed) {
+			synchronized (this) {
+				drain(null, false);
+			}
+			LockSupport.parkNanos(this, Math.max(POLL_NANOS, Math.min(minIntervalNanos, 10 * POLL_NANOS)));
+		}
+	}
+
+	/**
+	 * Takes the published improvements, and prints the latest one of each run
+	 * whose minimum interval since its last line has elapsed.
+	 *
+	 * @param source
+	 *            The name of the run whose latest improvement is printed at
+	 *            once, or null for every run.
+	 * @param force
+	 *            Whether the latest improvements are printed at once.
+	 */
+	private void drain(String source, boolean force) {
+		Improvement improvement;
+		while ((improvement = queue.poll()) != null) {
+			if (minIntervalNanos == 0) {
+				print(improvement, 1);
+				continue;
+			}
+			Pending run = pending.get(improvement.source);
+			if (run == null) {
+				run = new Pending();
+				run.lastPrint = System.nanoTime() - minIntervalNanos;
+				pending.put(improvement.source, run);
+			}
+			run.improvement = improvement;
+			run.coalesced++;
+		}
+
+		long now = System.nanoTime();
+		for (Iterator<Map.Entry<String, Pending>> it = pending.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<String, Pending> entry = it.next();
+			Pending run = entry.getValue();
+			boolean due = now - run.lastPrint >= minIntervalNanos;
+			if (run.improvement != null && (due || (force && (source == null || source.equals(entry.getKey()))))) {
+				print(run.improvement, run.coalesced);
+				run.improvement = null;
+				run.coalesced = 0;
+				run.lastPrint = now = System.nanoTime();
+			} else if (run.improvement == null && due) {
+				it.remove();
+			}
+		}
+	}
+
+	private void print(Improvement improvement, int count) {
+		StringBuilder line = new StringBuilder();
+		line.append('[').append(improvement.source).append("] (Gen. ").append(improvement.generation).append(", ");
+		line.append(String.format(Locale.ROOT, "%.3f", improvement.elapsedNanos / 1e9)).append(" s) BestSol = ").append(improvement.solution);
+		if (count > 1)
+			line.append(" [").append(count - 1).append(" earlier improvements skipped]");
+		out.println(line);
+	}
+
+}
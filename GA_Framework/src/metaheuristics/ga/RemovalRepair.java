@@ -0,0 +1,28 @@
+package metaheuristics.ga;
+
+/**
+ * A repair that makes a chromosome feasible through the problem specific
+ * {@link AbstractGA#removeUntilFeasible}.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class RemovalRepair<G extends Number, F> implements RepairOperator<G, F> {
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.RepairOperator#repair(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Chromosome)
+	 */
+	@Override
+	public void repair(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome chromosome) {
+
+		ga.removeUntilFeasible(chromosome);
+
+	}
+
+}
@@ -0,0 +1,43 @@
+package metaheuristics.ga;
+
+/**
+ * A step making an infeasible offspring feasible (or less infeasible), run
+ * after the crossover and after each gene changed by the mutation.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public interface RepairOperator<G extends Number, F> {
+
+	/**
+	 * Repairs a chromosome in place.
+	 *
+	 * @param ga
+	 *            The GA running the operator.
+	 * @param chromosome
+	 *            The offspring being repaired.
+	 */
+	public abstract void repair(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome chromosome);
+
+	/**
+	 * Gives a repair operator that runs this one and then another one.
+	 *
+	 * @param next
+	 *            The operator run after this one.
+	 * @return The composed operator.
+	 */
+	public default RepairOperator<G, F> andThen(final RepairOperator<G, F> next) {
+		final RepairOperator<G, F> first = this;
+		return new RepairOperator<G, F>() {
+			@Override
+			public void repair(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome chromosome) {
+				first.repair(ga, chromosome);
+				next.repair(ga, chromosome);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,34 @@
+package metaheuristics.ga;
+
+/**
+ * The population update step of a GA. It builds the population of the next
+ * generation from the current population and the evaluated offsprings, by
+ * copying chromosomes in place with {@link AbstractGA.Population#replace}.
+ *
+ * The population returned must be either the current population or the
+ * offsprings, with its {@link FitnessTree} up to date (see
+ * {@link AbstractGA.Population#indexFitness}). When the offsprings are
+ * returned, the current population is recycled as the next offspring buffer.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public interface ReplacementOperator<G extends Number, F> {
+
+	/**
+	 * Updates the population for the next generation.
+	 *
+	 * @param ga
+	 *            The GA running the operator.
+	 * @param population
+	 *            The current population, whose fitness tree is up to date.
+	 * @param offsprings
+	 *            The evaluated offsprings.
+	 * @return The population of the next generation.
+	 */
+	public abstract AbstractGA<G, F>.Population replace(AbstractGA<G, F> ga, AbstractGA<G, F>.Population population, AbstractGA<G, F>.Population offsprings);
+
+}
@@ -0,0 +1,107 @@
+package metaheuristics.ga;
+
+import java.util.Collections;
+
+/**
+ * Selection of parents for crossover using the Stochastic universal selection
+ * (SUS) method. The fitness of the population is turned into non-negative
+ * weights by a {@link FitnessScaling}, and {@link AbstractGA#popSize} pointers
+ * equally spaced by total/popSize, starting at a random offset, are laid over
+ * the cumulative weights. As the pointers are sorted, a single pass over the
+ * population selects all the parents, in O(popSize). The parents are then
+ * shuffled, so that the crossover does not pair neighbouring chromosomes.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class SUSSelection<G extends Number, F> implements SelectionOperator<G, F> {
+
+	/**
+	 * how the fitness is turned into weights
+	 */
+	private final FitnessScaling scaling;
+
+	/**
+	 * scratch arrays, grown to the size of the population
+	 */
+	private double[] cumulative = new double[0];
+	private double[] scratch = new double[0];
+
+	/**
+	 * Creates a SUS selection with the {@link FitnessScaling#WINDOWING}
+	 * scaling.
+	 */
+	public SUSSelection() {
+		this(FitnessScaling.WINDOWING);
+	}
+
+	/**
+	 * The constructor for the SUSSelection class.
+	 *
+	 * @param scaling
+	 *            How the fitness is turned into weights.
+	 */
+	public SUSSelection(FitnessScaling scaling) {
+		this.scaling = scaling;
+	}
+
+	public FitnessScaling getScaling() {
+		return scaling;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.SelectionOperator#select(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Population,
+	 * metaheuristics.ga.AbstractGA.Population)
+	 */
+	@Override
+	public void select(AbstractGA<G, F> ga, AbstractGA<G, F>.Population population, AbstractGA<G, F>.Population parents) {
+
+		int size = population.size();
+		if (cumulative.length < size) {
+			cumulative = new double[size];
+			scratch = new double[size];
+		}
+
+		for (int i = 0; i < size; i++) {
+			cumulative[i] = ga.getFitness(population.get(i));
+		}
+		scaling.scale(cumulative, size, scratch);
+
+		double total = 0.0;
+		for (int i = 0; i < size; i++) {
+			total += cumulative[i];
+			cumulative[i] = total;
+		}
+
+		/* all the weights are zero, so every chromosome is equally likely */
+		if (!(total > 0.0)) {
+			for (int i = 0; i < size; i++) {
+				cumulative[i] = i + 1;
+			}
+			total = size;
+		}
+
+		double step = total / ga.popSize;
+		double pointer = ga.rng.nextDouble() * step;
+		int i = 0;
+		for (int k = 0; k < ga.popSize; k++) {
+			while (i < size - 1 && cumulative[i] <= pointer) {
+				i++;
+			}
+			parents.add(population.get(i));
+			pointer += step;
+		}
+
+		for (int k = parents.size() - 1; k > 0; k--) {
+			Collections.swap(parents, k, ga.rng.nextInt(k + 1));
+		}
+
+	}
+
+}
@@ -0,0 +1,32 @@
+package metaheuristics.ga;
+
+/**
+ * The parent selection step of a GA. It chooses, from the current
+ * population, the {@link AbstractGA#popSize} parents that are then paired
+ * for crossover, parents i and i + 1 forming the pair i / 2.
+ *
+ * Operators may keep scratch buffers, so an instance must not be shared by
+ * GAs running at the same time.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public interface SelectionOperator<G extends Number, F> {
+
+	/**
+	 * Selects the parents for crossover.
+	 *
+	 * @param ga
+	 *            The GA running the operator.
+	 * @param population
+	 *            The current population, which is not modified.
+	 * @param parents
+	 *            The empty list the selected parents are added to. It only
+	 *            refers to chromosomes of the population.
+	 */
+	public abstract void select(AbstractGA<G, F> ga, AbstractGA<G, F>.Population population, AbstractGA<G, F>.Population parents);
+
+}
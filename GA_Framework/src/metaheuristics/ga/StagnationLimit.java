@@ -0,0 +1,73 @@
+package metaheuristics.ga;
+
+/**
+ * Stops a run once its best solution has not improved for a given number of
+ * generations.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class StagnationLimit<G extends Number, F> implements StoppingCriterion<G, F> {
+
+	/**
+	 * the number of generations without improvement that stops the run
+	 */
+	private final int maxStagnation;
+
+	/**
+	 * the best cost seen so far, or NaN before the first check
+	 */
+	private double bestCost;
+
+	/**
+	 * the generation in which the best cost was last improved
+	 */
+	private int lastImprovement;
+
+	/**
+	 * @param maxStagnation
+	 *            The number of generations without improvement that stops
+	 *            the run.
+	 */
+	public StagnationLimit(int maxStagnation) {
+		if (maxStagnation < 1)
+			throw new IllegalArgumentException("The stagnation limit must be positive: " + maxStagnation);
+		this.maxStagnation = maxStagnation;
+	}
+
+	public int getMaxStagnation() {
+		return maxStagnation;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.StoppingCriterion#start(metaheuristics.ga.
+	 * AbstractGA)
+	 */
+	@Override
+	public void start(AbstractGA<G, F> ga) {
+		bestCost = Double.NaN;
+		lastImprovement = 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.StoppingCriterion#isMet(metaheuristics.ga.
+	 * AbstractGA)
+	 */
+	@Override
+	public boolean isMet(AbstractGA<G, F> ga) {
+		double cost = ga.bestSol.cost;
+		if (Double.isNaN(bestCost) || cost > bestCost) {
+			bestCost = cost;
+			lastImprovement = ga.getGeneration();
+		}
+		return ga.getGeneration() - lastImprovement >= maxStagnation;
+	}
+
+}
@@ -0,0 +1,63 @@
+package metaheuristics.ga;
+
+/**
+ * The Steady-State population update. It replaces the worst and a random
+ * individuals from the current population by the 2 best individuals from the
+ * offspring. The offsprings are copied in place, since the offspring buffer is
+ * recycled, and the worst and best individuals of the current population are
+ * read from its {@link FitnessTree}, so only the offsprings are scanned.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class SteadyStateReplacement<G extends Number, F> implements ReplacementOperator<G, F> {
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.ReplacementOperator#replace(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Population,
+	 * metaheuristics.ga.AbstractGA.Population)
+	 */
+	@Override
+	public AbstractGA<G, F>.Population replace(AbstractGA<G, F> ga, AbstractGA<G, F>.Population population, AbstractGA<G, F>.Population offsprings) {
+
+		FitnessTree tree = population.getFitnessTree();
+
+		int indexRemoval = ga.rng.nextInt(population.size());
+		int currWorse = tree.worst();
+
+		/* the two best offsprings, in a single pass */
+		AbstractGA<G, F>.Chromosome newBest1 = null;
+		AbstractGA<G, F>.Chromosome newBest2 = null;
+		for (int i = 0; i < offsprings.size(); i++) {
+			AbstractGA<G, F>.Chromosome c = offsprings.get(i);
+			double fitness = ga.getFitness(c);
+			if (newBest1 == null || fitness > ga.getFitness(newBest1)) {
+				newBest2 = newBest1;
+				newBest1 = c;
+			} else if (newBest2 == null || fitness > ga.getFitness(newBest2)) {
+				newBest2 = c;
+			}
+		}
+
+		double bestCurrFitness = tree.get(tree.best());
+
+		boolean replaceWorse = tree.get(currWorse) < bestCurrFitness;
+		boolean replaceRandom = indexRemoval != currWorse && tree.get(indexRemoval) < bestCurrFitness;
+
+		if (replaceWorse) {
+			population.replace(currWorse, newBest1);
+		}
+
+		if (replaceRandom && newBest2 != null) {
+			population.replace(indexRemoval, newBest2);
+		}
+
+		return population;
+	}
+
+}
@@ -0,0 +1,65 @@
+package metaheuristics.ga;
+
+/**
+ * A condition that ends a run of the GA before it reaches its number of
+ * generations, checked once before each generation. A criterion may keep
+ * state about the run (e.g. the time it started), so an instance must not be
+ * shared by GAs running at the same time.
+ *
+ * Criteria are composed with {@link #or}, e.g. a time budget that also stops
+ * a run which has stagnated:
+ *
+ *    ga.setStoppingCriterion(new TimeLimit&lt;Integer, Integer&gt;(1800.0).or(new StagnationLimit&lt;Integer, Integer&gt;(500)));
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public interface StoppingCriterion<G extends Number, F> {
+
+	/**
+	 * Called when a run starts, before the initial population is created, to
+	 * reset the state kept about the previous run.
+	 *
+	 * @param ga
+	 *            The GA starting a run.
+	 */
+	public default void start(AbstractGA<G, F> ga) {
+	}
+
+	/**
+	 * Tells whether the run must stop. Once it returns true, it keeps
+	 * returning true until the next {@link #start}.
+	 *
+	 * @param ga
+	 *            The GA being run.
+	 * @return true if no more generations must be run.
+	 */
+	public abstract boolean isMet(AbstractGA<G, F> ga);
+
+	/**
+	 * Gives a criterion met as soon as this one or another one is met.
+	 *
+	 * @param other
+	 *            The other criterion.
+	 * @return The composed criterion.
+	 */
+	public default StoppingCriterion<G, F> or(final StoppingCriterion<G, F> other) {
+		final StoppingCriterion<G, F> first = this;
+		return new StoppingCriterion<G, F>() {
+			@Override
+			public void start(AbstractGA<G, F> ga) {
+				first.start(ga);
+				other.start(ga);
+			}
+
+			@Override
+			public boolean isMet(AbstractGA<G, F> ga) {
+				return first.isMet(ga) || other.isMet(ga);
+			}
+		};
+	}
+
+}
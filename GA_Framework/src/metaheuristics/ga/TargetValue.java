@@ -0,0 +1,43 @@
+package metaheuristics.ga;
+
+/**
+ * Stops a run once its best solution reaches a target cost, such as a known
+ * optimum or the best cost obtained by another method.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class TargetValue<G extends Number, F> implements StoppingCriterion<G, F> {
+
+	/**
+	 * the cost at which the run stops, the GA maximizing the cost
+	 */
+	private final double target;
+
+	/**
+	 * @param target
+	 *            The cost at which the run stops.
+	 */
+	public TargetValue(double target) {
+		this.target = target;
+	}
+
+	public double getTarget() {
+		return target;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.StoppingCriterion#isMet(metaheuristics.ga.
+	 * AbstractGA)
+	 */
+	@Override
+	public boolean isMet(AbstractGA<G, F> ga) {
+		return ga.bestSol.cost >= target;
+	}
+
+}
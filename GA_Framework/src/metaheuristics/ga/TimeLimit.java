@@ -0,0 +1,94 @@
+package metaheuristics.ga;
+
+/**
+ * Stops a run once its wall-clock time, counted from the creation of the
+ * initial population, exceeds a budget. The clock is read only every
+ * {@link #checkInterval} generations, so a run may exceed the budget by that
+ * many generations at most.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class TimeLimit<G extends Number, F> implements StoppingCriterion<G, F> {
+
+	/**
+	 * the budget of a run, in seconds
+	 */
+	private final double maxTime;
+
+	/**
+	 * the number of generations between two readings of the clock
+	 */
+	private final int checkInterval;
+
+	/**
+	 * the time the run must stop, in the scale of {@link System#nanoTime()}
+	 */
+	private long deadline;
+
+	/**
+	 * the generation at which the clock is read next
+	 */
+	private int nextCheck;
+
+	private boolean met;
+
+	/**
+	 * Creates a time limit checked every 10 generations.
+	 *
+	 * @param maxTime
+	 *            The budget of a run, in seconds.
+	 */
+	public TimeLimit(double maxTime) {
+		this(maxTime, 10);
+	}
+
+	/**
+	 * @param maxTime
+	 *            The budget of a run, in seconds.
+	 * @param checkInterval
+	 *            The number of generations between two readings of the clock.
+	 */
+	public TimeLimit(double maxTime, int checkInterval) {
+		if (checkInterval < 1)
+			throw new IllegalArgumentException("The check interval must be positive: " + checkInterval);
+		this.maxTime = maxTime;
+		this.checkInterval = checkInterval;
+	}
+
+	public double getMaxTime() {
+		return maxTime;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.StoppingCriterion#start(metaheuristics.ga.
+	 * AbstractGA)
+	 */
+	@Override
+	public void start(AbstractGA<G, F> ga) {
+		deadline = System.nanoTime() + (long) (maxTime * 1e9);
+		nextCheck = 0;
+		met = false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see metaheuristics.ga.StoppingCriterion#isMet(metaheuristics.ga.
+	 * AbstractGA)
+	 */
+	@Override
+	public boolean isMet(AbstractGA<G, F> ga) {
+		if (!met && ga.getGeneration() >= nextCheck) {
+			nextCheck = ga.getGeneration() + checkInterval;
+			met = System.nanoTime() - deadline >= 0;
+		}
+		return met;
+	}
+
+}
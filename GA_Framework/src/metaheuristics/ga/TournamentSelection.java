@@ -0,0 +1,41 @@
+package metaheuristics.ga;
+
+/**
+ * Selection of parents for crossover using the tournament method. Given a
+ * population of chromosomes, randomly takes two chromosomes and compare them
+ * by their fitness. The best one is selected as parent. Repeat until the
+ * number of selected parents is equal to {@link AbstractGA#popSize}.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class TournamentSelection<G extends Number, F> implements SelectionOperator<G, F> {
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.SelectionOperator#select(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Population,
+	 * metaheuristics.ga.AbstractGA.Population)
+	 */
+	@Override
+	public void select(AbstractGA<G, F> ga, AbstractGA<G, F>.Population population, AbstractGA<G, F>.Population parents) {
+
+		while (parents.size() < ga.popSize) {
+			int index1 = ga.rng.nextInt(ga.popSize);
+			AbstractGA<G, F>.Chromosome parent1 = population.get(index1);
+			int index2 = ga.rng.nextInt(ga.popSize);
+			AbstractGA<G, F>.Chromosome parent2 = population.get(index2);
+			if (ga.getFitness(parent1) > ga.getFitness(parent2)) {
+				parents.add(parent1);
+			} else {
+				parents.add(parent2);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,49 @@
+package metaheuristics.ga;
+
+/**
+ * The 2-point crossover, which randomly selects two locus for being the
+ * points of exchange (P1 and P2). For example:
+ * 
+ *                        P1            P2
+ *    Parent 1: X1 ... Xi | Xi+1 ... Xj | Xj+1 ... Xn
+ *    Parent 2: Y1 ... Yi | Yi+1 ... Yj | Yj+1 ... Yn
+ * 
+ * Offspring 1: X1 ... Xi | Yi+1 ... Yj | Xj+1 ... Xn
+ * Offspring 2: Y1 ... Yi | Xi+1 ... Xj | Yj+1 ... Yn
+ * 
+ * The genes are exchanged through {@link AbstractGA.Chromosome#copyRange},
+ * which binary chromosomes perform a word at a time.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class TwoPointCrossover<G extends Number, F> implements CrossoverOperator<G, F> {
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.CrossoverOperator#crossover(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Chromosome,
+	 * metaheuristics.ga.AbstractGA.Chromosome,
+	 * metaheuristics.ga.AbstractGA.Chromosome,
+	 * metaheuristics.ga.AbstractGA.Chromosome)
+	 */
+	@Override
+	public void crossover(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome parent1, AbstractGA<G, F>.Chromosome parent2,
+			AbstractGA<G, F>.Chromosome offspring1, AbstractGA<G, F>.Chromosome offspring2) {
+
+		int crosspoint1 = ga.rng.nextInt(ga.chromosomeSize + 1);
+		int crosspoint2 = crosspoint1 + ga.rng.nextInt((ga.chromosomeSize + 1) - crosspoint1);
+
+		offspring1.copyFrom(parent1);
+		offspring2.copyFrom(parent2);
+
+		offspring1.copyRange(parent2, crosspoint1, crosspoint2);
+		offspring2.copyRange(parent1, crosspoint1, crosspoint2);
+
+	}
+
+}
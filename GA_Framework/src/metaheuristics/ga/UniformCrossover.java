@@ -0,0 +1,46 @@
+package metaheuristics.ga;
+
+/**
+ * The uniform crossover, which randomly selects the allele from parent P1 or
+ * parent P2 and exchange. For example:
+ *
+ *    Crossover Mask:   0  0  1  0  1  0      1
+ *    Parent 1:         X1 X2 X3 X4 X5 X6 ... Xn
+ *    Parent 2:         Y1 Y2 Y3 Y4 Y5 Y6 ... Yn
+ *
+ *    Offspring 1:      X1 X2 Y3 X4 Y5 X6 ... Yn
+ *    Offspring 2:      Y1 Y2 X3 Y4 X5 X6 ... Xn
+ *
+ * The genes are exchanged through
+ * {@link AbstractGA.Chromosome#uniformExchange}, which binary chromosomes
+ * perform a word at a time.
+ *
+ * @author ccavellucci, fusberti
+ * @param <G>
+ *            Generic type of the chromosome element (genotype).
+ * @param <F>
+ *            Generic type of the candidate to enter the solution (fenotype).
+ */
+public class UniformCrossover<G extends Number, F> implements CrossoverOperator<G, F> {
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.CrossoverOperator#crossover(metaheuristics.ga.
+	 * AbstractGA, metaheuristics.ga.AbstractGA.Chromosome,
+	 * metaheuristics.ga.AbstractGA.Chromosome,
+	 * metaheuristics.ga.AbstractGA.Chromosome,
+	 * metaheuristics.ga.AbstractGA.Chromosome)
+	 */
+	@Override
+	public void crossover(AbstractGA<G, F> ga, AbstractGA<G, F>.Chromosome parent1, AbstractGA<G, F>.Chromosome parent2,
+			AbstractGA<G, F>.Chromosome offspring1, AbstractGA<G, F>.Chromosome offspring2) {
+
+		offspring1.copyFrom(parent1);
+		offspring2.copyFrom(parent2);
+
+		offspring1.uniformExchange(offspring2);
+
+	}
+
+}
@@ -0,0 +1,42 @@
+package problems;
+
+/**
+ * The BinaryEvaluator interface is an {@link Evaluator} for problems whose
+ * solutions are binary vectors, which is able to evaluate a solution given
+ * directly as a bitset: element i is in the solution iff bit (i % 64) of word
+ * x[i / 64] is set.
+ *
+ * Implementations must be reentrant, i.e., they may not keep any state about
+ * the solution being evaluated, so that a single instance can be used by
+ * several threads at the same time. This also holds for the methods inherited
+ * from {@link Evaluator}, which should be adapters over the bitset methods.
+ *
+ * @author ccavellucci, fusberti
+ */
+public interface BinaryEvaluator extends Evaluator<Integer> {
+
+	/**
+	 * The evaluating function is responsible for returning the mapping value of
+	 * a solution.
+	 *
+	 * @param x
+	 *            the words of the bitset representing the solution under
+	 *            evaluation.
+	 * @return the evaluation of the solution.
+	 */
+	public abstract double evaluate(long[] x);
+
+	/**
+	 * Evaluates the cost variation of flipping an element of a solution, i.e.,
+	 * of inserting it if it is not in the solution or removing it otherwise.
+	 *
+	 * @param x
+	 *            the words of the bitset representing the solution, which is
+	 *            not modified.
+	 * @param elem
+	 *            the element being flipped.
+	 * @return the cost variation resulting from the flip.
+	 */
+	public abstract double evaluateFlipCost(long[] x, int elem);
+
+}
@@ -1,12 +1,8 @@
 package problems.qbf;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StreamTokenizer;
 import java.util.Arrays;
-import problems.Evaluator;
+import problems.BinaryEvaluator;
 import solutions.Solution;
 
 /**
@@ -23,7 +19,7 @@ import solutions.Solution;
  * @author ccavellucci, fusberti
  *
  */
-public class QBF implements Evaluator<Integer> {
+public class QBF implements BinaryEvaluator {
 
 	/**
 	 * Dimension of the domain.
@@ -31,14 +27,24 @@ public class QBF implements Evaluator<Integer> {
 	public final Integer size;
 
 	/**
-	 * The array of numbers representing the domain.
+	 * The array of numbers representing the domain. It is shared by the
+	 * methods that take no solution as argument, such as {@link #evaluateQBF()}
+	 * and {@link #evaluateInsertionQBF(int)}, which are therefore not
+	 * thread-safe. The {@link BinaryEvaluator} methods never use it.
 	 */
-	public final Double[] variables;
+	public final double[] variables;
 
 	/**
 	 * The matrix A of coefficients for the QBFPT f(x) = x'.A.x
 	 */
-	public Double[][] A;
+	public QBFMatrix A;
+
+	/**
+	 * per-thread scratch bitset, used by the {@link problems.Evaluator}
+	 * methods to look up the elements of a solution without allocating
+	 * memory
+	 */
+	private final ThreadLocal<long[]> bitsetBuffer;
 
 	/**
 	 * The constructor for QuadracticBinaryFunction class. The filename of the
@@ -53,6 +59,7 @@ public class QBF implements Evaluator<Integer> {
 	public QBF(String filename) throws IOException {
 		size = readInput(filename);
 		variables = allocateVariables();
+		bitsetBuffer = ThreadLocal.withInitial(() -> new long[(size + 63) >>> 6]);
 	}
 
 	/**
@@ -85,7 +92,9 @@ public class QBF implements Evaluator<Integer> {
 
 	/**
 	 * {@inheritDoc} In the case of a QBFPT, the evaluation correspond to
-	 * computing a matrix multiplication x'.A.x. A better way to evaluate this
+	 * computing a matrix multiplication x'.A.x, which is restricted to the
+	 * pairs of elements in the solution when it is sparse (see
+	 * {@link QBFMatrix#evaluate(long[])}). A better way to evaluate this
 	 * function when at most two variables are modified is given by methods
 	 * {@link #evaluateInsertionQBF(int)}, {@link #evaluateRemovalQBF(int)} and
 	 * {@link #evaluateExchangeQBF(int,int)}.
@@ -95,8 +104,7 @@ public class QBF implements Evaluator<Integer> {
 	@Override
 	public Double evaluate(Solution<Integer> sol) {
 
-		setVariables(sol);
-		return sol.cost = evaluateQBF();
+		return sol.cost = A.evaluate(toBitset(sol));
 
 	}
 
@@ -108,19 +116,7 @@ public class QBF implements Evaluator<Integer> {
 	 */
 	public Double evaluateQBF() {
 
-		Double aux = (double) 0, sum = (double) 0;
-		Double vecAux[] = new Double[size];
-
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				aux += variables[j] * A[i][j];
-			}
-			vecAux[i] = aux;
-			sum += aux * variables[i];
-			aux = (double) 0;
-		}
-
-		return sum;
+		return A.evaluate(variables);
 
 	}
 
@@ -133,8 +129,11 @@ public class QBF implements Evaluator<Integer> {
 	@Override
 	public Double evaluateInsertionCost(Integer elem, Solution<Integer> sol) {
 
-		setVariables(sol);
-		return evaluateInsertionQBF(elem);
+		long[] x = toBitset(sol);
+		if (isSet(x, elem))
+			return 0.0;
+
+		return A.contribution(x, elem);
 
 	}
 
@@ -164,8 +163,11 @@ public class QBF implements Evaluator<Integer> {
 	@Override
 	public Double evaluateRemovalCost(Integer elem, Solution<Integer> sol) {
 
-		setVariables(sol);
-		return evaluateRemovalQBF(elem);
+		long[] x = toBitset(sol);
+		if (!isSet(x, elem))
+			return 0.0;
+
+		return -A.contribution(x, elem);
 
 	}
 
@@ -196,8 +198,17 @@ public class QBF implements Evaluator<Integer> {
 	@Override
 	public Double evaluateExchangeCost(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
 
-		setVariables(sol);
-		return evaluateExchangeQBF(elemIn, elemOut);
+		int in = elemIn, out = elemOut;
+		long[] x = toBitset(sol);
+
+		if (in == out)
+			return 0.0;
+		if (isSet(x, in))
+			return isSet(x, out) ? -A.contribution(x, out) : 0.0;
+		if (!isSet(x, out))
+			return A.contribution(x, in);
+
+		return A.contribution(x, in) - A.contribution(x, out) - (A.get(in, out) + A.get(out, in));
 
 	}
 
@@ -216,7 +227,7 @@ public class QBF implements Evaluator<Integer> {
 	 */
 	public Double evaluateExchangeQBF(int in, int out) {
 
-		Double sum = 0.0;
+		double sum = 0.0;
 
 		if (in == out)
 			return 0.0;
@@ -227,7 +238,7 @@ public class QBF implements Evaluator<Integer> {
 
 		sum += evaluateContributionQBF(in);
 		sum -= evaluateContributionQBF(out);
-		sum -= (A[in][out] + A[out][in]);
+		sum -= (A.get(in, out) + A.get(out, in));
 
 		return sum;
 	}
@@ -246,17 +257,60 @@ public class QBF implements Evaluator<Integer> {
 	 * @return the variation of the objective function resulting from the
 	 *         insertion.
 	 */
-	private Double evaluateContributionQBF(int i) {
+	private double evaluateContributionQBF(int i) {
 
-		Double sum = 0.0;
+		return A.contribution(variables, i);
 
-		for (int j = 0; j < size; j++) {
-			if (i != j)
-				sum += variables[j] * (A[i][j] + A[j][i]);
-		}
-		sum += A[i][i];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.BinaryEvaluator#evaluate(long[])
+	 */
+	@Override
+	public double evaluate(long[] x) {
+
+		return A.evaluate(x);
 
-		return sum;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.BinaryEvaluator#evaluateFlipCost(long[], int)
+	 */
+	@Override
+	public double evaluateFlipCost(long[] x, int elem) {
+
+		double sum = A.contribution(x, elem);
+
+		return isSet(x, elem) ? -sum : sum;
+	}
+
+	/**
+	 * @return Whether variable i is set in a bitset.
+	 */
+	protected static boolean isSet(long[] x, int i) {
+		return (x[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Gives the bitset of a solution, in the scratch bitset of the current
+	 * thread, which is overwritten by the next call from the same thread.
+	 *
+	 * @param sol
+	 *            The solution.
+	 * @return The bitset, in which an element repeated in the solution is a
+	 *         single variable set to 1.
+	 */
+	protected long[] toBitset(Solution<Integer> sol) {
+		long[] x = bitsetBuffer.get();
+		Arrays.fill(x, 0L);
+		for (Integer elem : sol) {
+			x[elem >>> 6] |= 1L << elem;
+		}
+		return x;
 	}
 
 	/**
@@ -273,24 +327,8 @@ public class QBF implements Evaluator<Integer> {
 	 */
 	protected Integer readInput(String filename) throws IOException {
 
-		Reader fileInst = new BufferedReader(new FileReader(filename));
-		StreamTokenizer stok = new StreamTokenizer(fileInst);
-
-		stok.nextToken();
-		Integer _size = (int) stok.nval;
-		A = new Double[_size][_size];
-
-		for (int i = 0; i < _size; i++) {
-			for (int j = i; j < _size; j++) {
-				stok.nextToken();
-				A[i][j] = stok.nval;
-				//A[j][i] = A[i][j];
-				if (j>i)
-					A[j][i] = 0.0;
-			}
-		}
-
-		return _size;
+		A = QBFInstance.read(filename);
+		return A.size;
 
 	}
 
@@ -300,8 +338,8 @@ public class QBF implements Evaluator<Integer> {
 	 * 
 	 * @return a pointer to the array of domain variables.
 	 */
-	protected Double[] allocateVariables() {
-		Double[] _variables = new Double[size];
+	protected double[] allocateVariables() {
+		double[] _variables = new double[size];
 		return _variables;
 	}
 
@@ -319,7 +357,7 @@ public class QBF implements Evaluator<Integer> {
 
 		for (int i = 0; i < size; i++) {
 			for (int j = i; j < size; j++) {
-				System.out.print(A[i][j] + " ");
+				System.out.print(A.get(i, j) + " ");
 			}
 			System.out.println();
 		}
@@ -0,0 +1,512 @@
+package problems.qbf;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes the matrix of coefficients of a QBF instance, in one of
+ * two formats, detected when reading:
+ *
+ * - the text format described in the instances README: the dimension N,
+ * followed by the N(N+1)/2 coefficients of the upper triangle, row by row;
+ *
+ * - a binary format, loaded through a memory mapped file, made of a 12-byte
+ * header, the magic bytes "QBFB", the format version, the {@link Encoding} of
+ * the coefficients, two bytes set to zero and the dimension N as a 32-bit
+ * integer, followed by the N(N+1)/2 coefficients of the upper triangle, row
+ * by row, with no separator. All numbers are little-endian.
+ *
+ * A text instance is converted by running this class:
+ *
+ *    java problems.qbf.QBFInstance instances/qbf400 instances/qbf400.bin [int8|int16|float32|float64]
+ *
+ * @author ccavellucci, fusberti
+ */
+public final class QBFInstance {
+
+	/**
+	 * the magic bytes "QBFB" starting a binary instance
+	 */
+	private static final int MAGIC = 0x42464251;
+
+	private static final byte VERSION = 1;
+
+	private static final int HEADER_SIZE = 12;
+
+	/**
+	 * The ways a coefficient is stored in a binary instance.
+	 */
+	public enum Encoding {
+		INT8(1), INT16(2), FLOAT32(4), FLOAT64(8);
+
+		/**
+		 * the number of bytes of a coefficient, which is also the code of the
+		 * encoding in the header
+		 */
+		public final int bytes;
+
+		private Encoding(int bytes) {
+			this.bytes = bytes;
+		}
+
+		/**
+		 * @param value
+		 *            A coefficient.
+		 * @return true if the coefficient is stored exactly in this encoding.
+		 */
+		public boolean fits(double value) {
+			switch (this) {
+			case INT8:
+				return value == (byte) value;
+			case INT16:
+				return value == (short) value;
+			case FLOAT32:
+				return value == (float) value || Double.isNaN(value);
+			default:
+				return true;
+			}
+		}
+
+		private static Encoding of(int bytes) {
+			for (Encoding encoding : values()) {
+				if (encoding.bytes == bytes)
+					return encoding;
+			}
+			return null;
+		}
+	}
+
+	private QBFInstance() {
+	}
+
+	/**
+	 * Reads an instance in either format.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @return The matrix of coefficients.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static QBFMatrix read(String filename) throws IOException {
+		return isBinary(filename) ? readBinary(filename) : readText(filename);
+	}
+
+	/**
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @return true if the file starts with the magic bytes of a binary
+	 *         instance.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static boolean isBinary(String filename) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			while (magic.hasRemaining() && channel.read(magic) >= 0) {
+			}
+			return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * Reads an instance in the text format. The numbers are parsed straight
+	 * from the bytes of the file into the packed coefficients of the matrix,
+	 * integers without any allocation. The file must hold exactly N(N+1)/2
+	 * coefficients after the dimension N.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @return The matrix of coefficients.
+	 * @throws IOException
+	 *             Necessary for I/O operations, or if the file is malformed,
+	 *             the message giving the line and column of the error.
+	 */
+	public static QBFMatrix readText(String filename) throws IOException {
+
+		try (TextParser parser = new TextParser(filename)) {
+
+			double dimension = parser.nextNumber("the dimension", -1, 0);
+			if (dimension != (int) dimension || dimension < 0)
+				throw parser.error("the dimension must be a non-negative integer: " + dimension);
+			int size = (int) dimension;
+			QBFMatrix A = new QBFMatrix(size);
+
+			double[] values = A.packedValues();
+			for (int k = 0; k < values.length; k++) {
+				values[k] = parser.nextNumber("coefficient", k, values.length);
+			}
+			parser.expectEnd(values.length);
+
+			return A;
+		}
+	}
+
+	/**
+	 * Reads an instance in the binary format, by mapping the file into
+	 * memory.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @return The matrix of coefficients.
+	 * @throws IOException
+	 *             Necessary for I/O operations, or if the file is not a valid
+	 *             binary instance.
+	 */
+	public static QBFMatrix readBinary(String filename) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+
+			if (channel.size() < HEADER_SIZE)
+				throw new IOException("Truncated binary instance: " + filename);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (buffer.getInt() != MAGIC)
+				throw new IOException("Not a binary instance: " + filename);
+			byte version = buffer.get();
+			if (version != VERSION)
+				throw new IOException("Unsupported version " + version + " of binary instance: " + filename);
+			Encoding encoding = Encoding.of(buffer.get());
+			if (encoding == null)
+				throw new IOException("Unknown encoding of binary instance: " + filename);
+			buffer.getShort();
+			int size = buffer.getInt();
+
+			long count = (long) size * (size + 1) / 2;
+			if (size < 0 || channel.size() != HEADER_SIZE + count * encoding.bytes)
+				throw new IOException("Binary instance of dimension " + size + " has " + channel.size() + " bytes: " + filename);
+
+			QBFMatrix A = new QBFMatrix(size);
+			double[] values = A.packedValues();
+			for (int k = 0; k < values.length; k++) {
+				switch (encoding) {
+				case INT8:
+					values[k] = buffer.get();
+					break;
+				case INT16:
+					values[k] = buffer.getShort();
+					break;
+				case FLOAT32:
+					values[k] = buffer.getFloat();
+					break;
+				default:
+					values[k] = buffer.getDouble();
+				}
+			}
+
+			return A;
+		}
+	}
+
+	/**
+	 * Gives the most compact encoding that stores every coefficient of a
+	 * matrix exactly.
+	 *
+	 * @param A
+	 *            The matrix of coefficients.
+	 * @return The encoding.
+	 */
+	public static Encoding smallestEncoding(QBFMatrix A) {
+		Encoding smallest = Encoding.INT8;
+		for (int i = 0; i < A.size; i++) {
+			for (int j = i; j < A.size; j++) {
+				while (!smallest.fits(A.get(i, j))) {
+					smallest = Encoding.values()[smallest.ordinal() + 1];
+				}
+			}
+		}
+		return smallest;
+	}
+
+	/**
+	 * Writes an instance in the binary format.
+	 *
+	 * @param A
+	 *            The matrix of coefficients.
+	 * @param filename
+	 *            Name of the file being written.
+	 * @param encoding
+	 *            The encoding of the coefficients, which must store all of
+	 *            them exactly.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static void writeBinary(QBFMatrix A, String filename, Encoding encoding) throws IOException {
+
+		Path path = Paths.get(filename);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).put(VERSION).put((byte) encoding.bytes).putShort((short) 0).putInt(A.size);
+
+			for (int i = 0; i < A.size; i++) {
+				for (int j = i; j < A.size; j++) {
+					double value = A.get(i, j);
+					if (!encoding.fits(value))
+						throw new IllegalArgumentException("Coefficient a(" + i + ", " + j + ") = " + value + " does not fit in " + encoding);
+					if (buffer.remaining() < encoding.bytes)
+						flush(channel, buffer);
+					switch (encoding) {
+					case INT8:
+						buffer.put((byte) value);
+						break;
+					case INT16:
+						buffer.putShort((short) value);
+						break;
+					case FLOAT32:
+						buffer.putFloat((float) value);
+						break;
+					default:
+						buffer.putDouble(value);
+					}
+				}
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	/**
+	 * A tokenizer of whitespace separated numbers over the bytes of a file,
+	 * keeping the line and column of each token for the error messages.
+	 * Integers of up to 18 digits are accumulated directly; any other token
+	 * must be a finite decimal, [+-]digits[.digits][e[+-]digits], before it
+	 * is handed over to {@link Double#parseDouble}, which would also accept
+	 * e.g. NaN, Infinity or 1d.
+	 */
+	private static final class TextParser implements AutoCloseable {
+
+		private final String filename;
+		private final InputStream in;
+		private final byte[] buffer = new byte[1 << 16];
+		private int position = 0;
+		private int limit = 0;
+
+		/**
+		 * the offset in the file of the first byte of the buffer
+		 */
+		private long bufferOffset = 0;
+
+		/**
+		 * the current line, the offset of its first byte, and the position of
+		 * the last token. The column is only computed for the tokens, from
+		 * their offset, so the bytes inside a line are not counted.
+		 */
+		private int line = 1;
+		private long lineOffset = 0;
+		private int tokenLine;
+		private long tokenColumn;
+
+		private final StringBuilder token = new StringBuilder();
+
+		TextParser(String filename) throws IOException {
+			this.filename = filename;
+			this.in = new FileInputStream(filename);
+		}
+
+		/**
+		 * @return The next byte, or -1 at the end of the file.
+		 */
+		private int read() throws IOException {
+			if (position == limit) {
+				bufferOffset += limit;
+				position = 0;
+				limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+				if (limit == 0)
+					return -1;
+			}
+			return buffer[position++] & 0xff;
+		}
+
+		/**
+		 * @return true for the space and the ASCII control characters, which
+		 *         include the tabs and the line breaks.
+		 */
+		private static boolean isWhitespace(int c) {
+			return c <= ' ' && c >= 0;
+		}
+
+		/**
+		 * Skips the whitespace before the next token, and records its
+		 * position.
+		 *
+		 * @return The first byte of the next token, or -1 at the end of the
+		 *         file.
+		 */
+		private int skipWhitespace() throws IOException {
+			int c = read();
+			while (isWhitespace(c)) {
+				endOfToken(c);
+				c = read();
+			}
+			tokenLine = line;
+			tokenColumn = bufferOffset + position - lineOffset + (c < 0 ? 1 : 0);
+			return c;
+		}
+
+		/**
+		 * Accounts for the byte just read after a token, or between tokens.
+		 */
+		private void endOfToken(int c) {
+			if (c == '\n') {
+				line++;
+				lineOffset = bufferOffset + position;
+			}
+		}
+
+		/**
+		 * Parses the next token as a number.
+		 *
+		 * @param what
+		 *            What the number is, for the error messages.
+		 * @param index
+		 *            The position of the number among the ones of its kind,
+		 *            or -1 if there is only one, for the error messages.
+		 * @param count
+		 *            The number of numbers of its kind.
+		 * @return The number.
+		 * @throws IOException
+		 *             if there is no token left or it is not a number.
+		 */
+		double nextNumber(String what, int index, int count) throws IOException {
+
+			int c = skipWhitespace();
+			if (c < 0)
+				throw error("expected " + describe(what, index, count) + ", found the end of the file");
+
+			int sign = 0;
+			if (c == '-' || c == '+') {
+				sign = c;
+				c = read();
+			}
+
+			long value = 0;
+			int digits = 0;
+			while (c >= '0' && c <= '9' && digits < 18) {
+				value = value * 10 + (c - '0');
+				digits++;
+				c = read();
+			}
+			if (digits > 0 && (c < 0 || isWhitespace(c))) {
+				endOfToken(c);
+				return sign == '-' ? -value : value;
+			}
+
+			/* not a plain integer: decimals, exponents or a malformed token */
+			token.setLength(0);
+			if (sign != 0)
+				token.append((char) sign);
+			if (digits > 0)
+				token.append(value);
+			while (c >= 0 && !isWhitespace(c)) {
+				token.append((char) c);
+				c = read();
+			}
+			endOfToken(c);
+			double number = isDecimal(token) ? Double.parseDouble(token.toString()) : Double.NaN;
+			if (Double.isNaN(number) || Double.isInfinite(number))
+				throw error("expected " + describe(what, index, count) + ", found '" + token + "'");
+			return number;
+		}
+
+		/**
+		 * @return true if the token is [+-]digits[.digits][e[+-]digits].
+		 */
+		private static boolean isDecimal(CharSequence token) {
+			int i = 0;
+			int length = token.length();
+			if (i < length && (token.charAt(i) == '-' || token.charAt(i) == '+'))
+				i++;
+			int start = i;
+			while (i < length && token.charAt(i) >= '0' && token.charAt(i) <= '9')
+				i++;
+			if (i == start)
+				return false;
+			if (i < length && token.charAt(i) == '.') {
+				start = ++i;
+				while (i < length && token.charAt(i) >= '0' && token.charAt(i) <= '9')
+					i++;
+				if (i == start)
+					return false;
+			}
+			if (i < length && (token.charAt(i) == 'e' || token.charAt(i) == 'E')) {
+				i++;
+				if (i < length && (token.charAt(i) == '-' || token.charAt(i) == '+'))
+					i++;
+				start = i;
+				while (i < length && token.charAt(i) >= '0' && token.charAt(i) <= '9')
+					i++;
+				if (i == start)
+					return false;
+			}
+			return i == length;
+		}
+
+		private static String describe(String what, int index, int count) {
+			return index < 0 ? what : what + " " + (index + 1) + " of " + count;
+		}
+
+		/**
+		 * Checks that nothing but whitespace is left.
+		 *
+		 * @param count
+		 *            The number of coefficients read, for the error message.
+		 * @throws IOException
+		 *             if there is another token.
+		 */
+		void expectEnd(int count) throws IOException {
+			if (skipWhitespace() >= 0)
+				throw error("expected the end of the file after the " + count + " coefficients of the upper triangle");
+		}
+
+		/**
+		 * @return An exception reporting an error at the last token.
+		 */
+		IOException error(String message) {
+			return new IOException(filename + ":" + tokenLine + ":" + tokenColumn + ": " + message);
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Converts an instance, in either format, to the binary format. The
+	 * encoding is the most compact exact one, unless given.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if (args.length < 2 || args.length > 3) {
+			System.err.println("Usage: java problems.qbf.QBFInstance <input> <output> [int8|int16|float32|float64]");
+			System.exit(1);
+		}
+
+		long startTime = System.currentTimeMillis();
+		QBFMatrix A = read(args[0]);
+		Encoding encoding = args.length == 3 ? Encoding.valueOf(args[2].toUpperCase()) : smallestEncoding(A);
+		writeBinary(A, args[1], encoding);
+		double time = (System.currentTimeMillis() - startTime) / 1000.0;
+
+		System.out.println("Converted " + args[0] + " (N = " + A.size + ") to " + args[1] + " as " + encoding + " in " + time + " seg");
+	}
+
+}
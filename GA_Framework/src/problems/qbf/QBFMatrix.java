@@ -0,0 +1,289 @@
+package problems.qbf;
+
+/**
+ * The matrix A of coefficients of a QBF f(x) = x'.A.x, stored as a packed
+ * upper triangle in a flat primitive array. As described in the instances
+ * README, all elements below the diagonal are zero, so row i keeps only the
+ * coefficients a_ii ... a_in, one row after the other:
+ *
+ * a11 a12 ... a1n | a22 ... a2n | ... | ann
+ *
+ * The evaluation kernels are plain counted loops over primitive arrays, with
+ * no boxing, so that the JIT compiler can unroll and vectorize them. A binary
+ * vector with k ones can be evaluated either densely, in O(k.n), or sparsely
+ * over the pairs of selected indices, in O(k^2); the kernels taking a binary
+ * vector pick one of them according to its density.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class QBFMatrix {
+
+	/**
+	 * Fraction of ones above which a binary vector is evaluated densely. The
+	 * sparse kernel reads only the selected coefficients, but through an
+	 * index, so the dense one only pays off for nearly full vectors (on
+	 * qbf400 both take the same time between 85% and 90% of ones).
+	 */
+	public static final double SPARSE_DENSITY_THRESHOLD = 0.85;
+
+	/**
+	 * Dimension of the matrix.
+	 */
+	public final int size;
+
+	/**
+	 * the coefficients of the upper triangle, row by row
+	 */
+	private final double[] values;
+
+	/**
+	 * the position of each diagonal element a_ii in {@link #values}
+	 */
+	private final int[] rowStart;
+
+	/**
+	 * per-thread scratch buffers, used to evaluate binary vectors without
+	 * allocating memory
+	 */
+	private final ThreadLocal<int[]> indexBuffer;
+	private final ThreadLocal<double[]> vectorBuffer;
+
+	/**
+	 * Creates a matrix of the given dimension with all coefficients set to
+	 * zero.
+	 *
+	 * @param size
+	 *            Dimension of the matrix.
+	 */
+	public QBFMatrix(int size) {
+		if ((long) size * (size + 1) / 2 > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Matrix dimension too large: " + size);
+		this.size = size;
+		this.values = new double[size * (size + 1) / 2];
+		this.rowStart = new int[size];
+		for (int i = 1; i < size; i++) {
+			rowStart[i] = rowStart[i - 1] + (size - i + 1);
+		}
+		this.indexBuffer = ThreadLocal.withInitial(() -> new int[size]);
+		this.vectorBuffer = ThreadLocal.withInitial(() -> new double[size]);
+	}
+
+	/**
+	 * @return The coefficient a_ij, which is zero below the diagonal.
+	 */
+	public double get(int i, int j) {
+		if (j < i)
+			return 0.0;
+		return values[rowStart[i] + j - i];
+	}
+
+	/**
+	 * Sets the coefficient a_ij of the upper triangle.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the element is below the diagonal.
+	 */
+	public void set(int i, int j, double value) {
+		if (j < i)
+			throw new IllegalArgumentException("Element below the diagonal: (" + i + ", " + j + ")");
+		values[rowStart[i] + j - i] = value;
+	}
+
+	/**
+	 * Gives the coefficients of the upper triangle, row by row, so that the
+	 * instance readers of this package fill them in file order without
+	 * computing the position of each one.
+	 *
+	 * @return The packed coefficients, not a copy.
+	 */
+	double[] packedValues() {
+		return values;
+	}
+
+	/**
+	 * Evaluates x'.A.x for a vector of variables x.
+	 *
+	 * @param x
+	 *            The values of the variables.
+	 * @return The value of the QBF.
+	 */
+	public double evaluate(double[] x) {
+
+		double sum = 0.0;
+
+		for (int i = 0; i < size; i++) {
+			if (x[i] != 0.0)
+				sum += x[i] * rowProduct(i, x);
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Determines the contribution of variable i to x'.A.x, disregarding the
+	 * value of x_i itself: a_ii + \sum{j != i}{(a_ij + a_ji)*x_j}.
+	 *
+	 * @param x
+	 *            The values of the variables.
+	 * @param i
+	 *            Index of the variable.
+	 * @return The contribution of the variable.
+	 */
+	public double contribution(double[] x, int i) {
+
+		double sum = values[rowStart[i]];
+
+		/* column i, above the diagonal */
+		for (int j = 0; j < i; j++) {
+			sum += x[j] * values[rowStart[j] + i - j];
+		}
+
+		/* row i, after the diagonal */
+		int offset = rowStart[i] - i;
+		for (int j = i + 1; j < size; j++) {
+			sum += x[j] * values[offset + j];
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Evaluates x'.A.x for a binary vector given by the indices of its ones,
+	 * choosing between the dense and the sparse kernels according to
+	 * {@link #SPARSE_DENSITY_THRESHOLD}.
+	 *
+	 * @param indices
+	 *            The indices of the variables set to 1, in increasing order.
+	 * @param count
+	 *            The number of indices.
+	 * @return The value of the QBF.
+	 */
+	public double evaluate(int[] indices, int count) {
+
+		if (count < SPARSE_DENSITY_THRESHOLD * size)
+			return evaluateSparse(indices, count);
+
+		double[] x = vectorBuffer.get();
+		for (int a = 0; a < count; a++) {
+			x[indices[a]] = 1.0;
+		}
+		double sum = evaluate(x);
+		for (int a = 0; a < count; a++) {
+			x[indices[a]] = 0.0;
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Evaluates x'.A.x for a binary vector given as a bitset, in which variable
+	 * i is bit (i % 64) of word x[i / 64].
+	 *
+	 * @param x
+	 *            The words of the bitset.
+	 * @return The value of the QBF.
+	 */
+	public double evaluate(long[] x) {
+
+		int[] indices = indexBuffer.get();
+		int count = 0;
+
+		for (int w = 0; w < x.length; w++) {
+			long word = x[w];
+			while (word != 0) {
+				indices[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+
+		return evaluate(indices, count);
+	}
+
+	/**
+	 * Determines the contribution of variable i to x'.A.x for a binary vector
+	 * given as a bitset, disregarding the value of x_i itself.
+	 *
+	 * @param x
+	 *            The words of the bitset.
+	 * @param i
+	 *            Index of the variable.
+	 * @return The contribution of the variable.
+	 */
+	public double contribution(long[] x, int i) {
+
+		double sum = values[rowStart[i]];
+		int offset = rowStart[i] - i;
+
+		for (int j = nextSetBit(x, 0); j >= 0; j = nextSetBit(x, j + 1)) {
+			if (j < i)
+				sum += values[rowStart[j] + i - j];
+			else if (j > i)
+				sum += values[offset + j];
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Gives the first bit set to 1 in a bitset, at or after a given index.
+	 *
+	 * @param x
+	 *            The words of the bitset.
+	 * @param from
+	 *            The index where the search starts.
+	 * @return The index found, or -1 if there is none.
+	 */
+	public static int nextSetBit(long[] x, int from) {
+		int w = from >>> 6;
+		if (w >= x.length)
+			return -1;
+		long word = x[w] & (-1L << from);
+		while (word == 0) {
+			if (++w == x.length)
+				return -1;
+			word = x[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * Evaluates x'.A.x visiting only the pairs of variables set to 1, i.e., in
+	 * O(k^2) for k ones.
+	 *
+	 * @param indices
+	 *            The indices of the variables set to 1, in increasing order.
+	 * @param count
+	 *            The number of indices.
+	 * @return The value of the QBF.
+	 */
+	public double evaluateSparse(int[] indices, int count) {
+
+		double sum = 0.0;
+
+		for (int a = 0; a < count; a++) {
+			int i = indices[a];
+			int offset = rowStart[i] - i;
+			for (int b = a; b < count; b++) {
+				sum += values[offset + indices[b]];
+			}
+		}
+
+		return sum;
+	}
+
+	/**
+	 * The product of row i of the upper triangle by x: \sum{j >= i}{a_ij*x_j}.
+	 */
+	private double rowProduct(int i, double[] x) {
+
+		double aux = 0.0;
+		int offset = rowStart[i] - i;
+
+		for (int j = i; j < size; j++) {
+			aux += values[offset + j] * x[j];
+		}
+
+		return aux;
+	}
+
+}
@@ -1,7 +1,7 @@
 package problems.qbf.solvers;
 
 import java.io.IOException;
-import metaheuristics.ga.AbstractGA;
+import metaheuristics.ga.AbstractBinaryGA;
 import problems.qbf.QBF;
 import solutions.Solution;
 
@@ -12,7 +12,7 @@ import solutions.Solution;
  * 
  * @author ccavellucci, fusberti
  */
-public class GA_QBF extends AbstractGA<Integer, Integer> {
+public class GA_QBF extends AbstractBinaryGA<Integer> {
 
 	/**
 	 * Constructor for the GA_QBFPT class. The QBFPT objective function is passed as
@@ -57,17 +57,42 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
 	@Override
 	protected Solution<Integer> decode(Chromosome chromosome) {
 
+		BinaryChromosome binary = (BinaryChromosome) chromosome;
 		Solution<Integer> solution = createEmptySol();
-		for (int locus = 0; locus < chromosome.size(); locus++) {
-			if (chromosome.get(locus) == 1) {
-				solution.add(new Integer(locus));
-			}
+		for (int locus = binary.nextSetBit(0); locus >= 0; locus = binary.nextSetBit(locus + 1)) {
+			solution.add(locus);
 		}
 
-		ObjFunction.evaluate(solution);
+		solution.cost = binary.getCost();
 		return solution;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.AbstractBinaryGA#evaluateCost(metaheuristics.ga.
+	 * AbstractBinaryGA.BinaryChromosome)
+	 */
+	@Override
+	protected double evaluateCost(BinaryChromosome chromosome) {
+
+		return ((QBF) ObjFunction).evaluate(chromosome.getWords());
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.AbstractBinaryGA#evaluateFlipCost(metaheuristics.ga.
+	 * AbstractBinaryGA.BinaryChromosome, int)
+	 */
+	@Override
+	protected double evaluateFlipCost(BinaryChromosome chromosome, int locus) {
+
+		return ((QBF) ObjFunction).evaluateFlipCost(chromosome.getWords(), locus);
+
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -76,10 +101,8 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
 	@Override
 	protected Chromosome generateRandomChromosome() {
 
-		Chromosome chromosome = new Chromosome();
-		for (int i = 0; i < chromosomeSize; i++) {
-			chromosome.add(rng.nextInt(2));
-		}
+		BinaryChromosome chromosome = new BinaryChromosome();
+		chromosome.randomize();
 
 		return chromosome;
 	}
@@ -93,7 +116,7 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
 	@Override
 	protected Double fitness(Chromosome chromosome) {
 
-		return decode(chromosome).cost;
+		return ((BinaryChromosome) chromosome).getCost();
 
 	}
 
@@ -116,7 +139,7 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
 	@Override
 	protected void mutateGene(Chromosome chromosome, Integer locus) {
 
-		chromosome.set(locus, 1 - chromosome.get(locus));
+		((BinaryChromosome) chromosome).flip(locus);
 
 	}
 
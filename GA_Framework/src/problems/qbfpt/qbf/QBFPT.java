@@ -1,6 +1,7 @@
 package problems.qbfpt.qbf;
 
-import problems.Evaluator;
+import problems.qbf.QBF;
+import problems.qbf.QBFMatrix;
 import solutions.Solution;
 
 import java.io.*;
@@ -8,20 +9,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 /**
- * A quadractic binary function (QBFPT) is a function that can be expressed as the
- * sum of quadractic terms: f(x) = \sum{i,j}{a_{ij}*x_i*x_j}. In matricial form
- * a QBFPT can be expressed as f(x) = x'.A.x
- * The problem of minimizing a QBFPT is NP-hard [1], even when no constraints
- * are considered.
- * 
- * [1] Kochenberger, et al. The unconstrained binary quadratic programming
- * problem: a survey. J Comb Optim (2014) 28:58–81. DOI
- * 10.1007/s10878-014-9734-0.
+ * A QBF with prohibited triples (QBFPT): the same function f(x) = x'.A.x as
+ * a {@link QBF}, which evaluates it, together with a set of triples of
+ * variables that must not all be set to 1 in a feasible solution.
  * 
  * @author ccavellucci, fusberti
  *
  */
-public class QBFPT implements Evaluator<Integer> {
+public class QBFPT extends QBF {
 
 
 	private static final int GPI1 = 131;
@@ -29,22 +24,14 @@ public class QBFPT implements Evaluator<Integer> {
 	private static final int HPI1 = 193;
 	private static final int HPI2 = 1093;
 
-	/**
-	 * Dimension of the domain.
-	 */
-	public final Integer size;
+	private ArrayList<int[]> triples;
 
 	/**
-	 * The array of numbers representing the domain.
+	 * Inverted index of the prohibited triples: triplesOf[x] holds the indices
+	 * (in {@link #triples}) of every triple containing variable x. Each
+	 * variable belongs to a handful of triples only.
 	 */
-	public final Double[] variables;
-
-	/**
-	 * The matrix A of coefficients for the QBFPT f(x) = x'.A.x
-	 */
-	public Double[][] A;
-
-	private ArrayList<int[]> triples;
+	private int[][] triplesOf;
 
 	/**
 	 * The constructor for QuadracticBinaryFunction class. The filename of the
@@ -57,9 +44,9 @@ public class QBFPT implements Evaluator<Integer> {
 	 *             Necessary for I/O operations.
 	 */
 	public QBFPT(String filename) throws IOException {
-		size = readInput(filename);
-		variables = allocateVariables();
+		super(filename);
 		triples = generate_triples();
+		triplesOf = index_triples();
 	}
 
 
@@ -115,6 +102,35 @@ public class QBFPT implements Evaluator<Integer> {
 	}
 
 
+	/**
+	 * Builds the inverted index {@link #triplesOf} from the triples. A triple
+	 * is listed once for each distinct variable it contains.
+	 * @return _triplesOf the triples containing each variable.
+	 */
+	private int[][] index_triples(){
+		int[] count = new int[this.size];
+		for (int[] triple : this.triples) {
+			for (int k = 0; k < 3; k++) {
+				if (k == 0 || triple[k] != triple[k - 1])
+					count[triple[k]]++;
+			}
+		}
+
+		int[][] _triplesOf = new int[this.size][];
+		for (int x = 0; x < this.size; x++) {
+			_triplesOf[x] = new int[count[x]];
+			count[x] = 0;
+		}
+		for (int t = 0; t < this.triples.size(); t++) {
+			int[] triple = this.triples.get(t);
+			for (int k = 0; k < 3; k++) {
+				if (k == 0 || triple[k] != triple[k - 1])
+					_triplesOf[triple[k]][count[triple[k]]++] = t;
+			}
+		}
+		return _triplesOf;
+	}
+
     /**
      * Test whether the solution is feasible.
      * For this, checks triple restriction.
@@ -123,321 +139,122 @@ public class QBFPT implements Evaluator<Integer> {
      * @return feasible: true if i is feasible, otherwise false
      */
     public boolean isFeasible(Solution<Integer> sol) {
-        for (Integer x : sol) {
-            double sum;
-            for (int[] triple : this.triples) {
-                // check if the value x is in a triple
-                if (x == triple[0] || x == triple[1] || x == triple[2]) {
-                    sum = 0;
-                    for (int k : triple) {
-                        if(sol.contains(new Integer(k)))
-                            sum += 1;
-                    }
-
-                    //if all the elements of that triple in which x is included
-                    //are also in the current solution, then it is infeasible
-                    if (sum == 3.0)
-                        return false;
-                }
-            }
-
-        }
-
-        return true;
+        return isFeasible(toBitset(sol));
     }
 
 	public Integer findForbiddenValue(Solution<Integer> sol)
 	{
-		for (Integer x : sol) {
-			double sum;
-			for (int[] triple : this.triples) {
-				// check if the value x is in a triple
-				if (x == triple[0] || x == triple[1] || x == triple[2]) {
-					sum = 0;
-					for (int k : triple) {
-						if(sol.contains(new Integer(k)))
-							sum += 1;
-					}
-
-					//if all the elements of that triple in which x is included
-					//are also in the current solution, then it is infeasible
-					if (sum == 3.0)
-						return x;
-				}
-			}
+		long[] x = toBitset(sol);
+		for (Integer elem : sol) {
+			if (isInViolatedTriple(x, elem))
+				return elem;
 		}
 		return null;
 	}
 
 	/**
-	 * Evaluates the value of a solution by transforming it into a vector. This
-	 * is required to perform the matrix multiplication which defines a QBFPT.
-	 * 
-	 * @param sol
-	 *            the solution which will be evaluated.
-	 */
-	public void setVariables(Solution<Integer> sol) {
-
-		resetVariables();
-		if (!sol.isEmpty()) {
-			for (Integer elem : sol) {
-				variables[elem] = 1.0;
-			}
-		}
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see problems.Evaluator#getDomainSize()
-	 */
-	@Override
-	public Integer getDomainSize() {
-		return size;
-	}
-
-	/**
-	 * {@inheritDoc} In the case of a QBFPT, the evaluation correspond to
-	 * computing a matrix multiplication x'.A.x. A better way to evaluate this
-	 * function when at most two variables are modified is given by methods
-	 * {@link #evaluateInsertionQBF(int)}, {@link #evaluateRemovalQBF(int)} and
-	 * {@link #evaluateExchangeQBF(int,int)}.
-	 * 
-	 * @return The evaluation of the QBFPT.
+	 * Test whether a solution given as a bitset (variable i being bit (i % 64)
+	 * of word x[i / 64]) is feasible. Each selected variable is checked
+	 * against its own triples only, so this takes O(k) for k selected
+	 * variables.
+	 * @param x the words of the bitset
+	 * @return feasible: true if x is feasible, otherwise false
 	 */
-	@Override
-	public Double evaluate(Solution<Integer> sol) {
-
-		setVariables(sol);
-		return sol.cost = evaluateQBF();
-
+	public boolean isFeasible(long[] x) {
+		return findForbiddenValue(x) == null;
 	}
 
 	/**
-	 * Evaluates a QBFPT by calculating the matrix multiplication that defines the
-	 * QBFPT: f(x) = x'.A.x .
-	 * 
-	 * @return The value of the QBFPT.
+	 * Finds the first selected variable that, together with the other
+	 * elements of one of its triples, is in the solution.
+	 * @param x the words of the bitset representing the solution
+	 * @return the variable found, or null if the solution is feasible
 	 */
-	public Double evaluateQBF() {
-
-		Double aux = (double) 0, sum = (double) 0;
-		Double vecAux[] = new Double[size];
-
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				aux += variables[j] * A[i][j];
-			}
-			vecAux[i] = aux;
-			sum += aux * variables[i];
-			aux = (double) 0;
+	public Integer findForbiddenValue(long[] x) {
+		for (int i = QBFMatrix.nextSetBit(x, 0); i >= 0; i = QBFMatrix.nextSetBit(x, i + 1)) {
+			if (isInViolatedTriple(x, i))
+				return i;
 		}
-
-		return sum;
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see problems.Evaluator#evaluateInsertionCost(java.lang.Object,
-	 * solutions.Solution)
-	 */
-	@Override
-	public Double evaluateInsertionCost(Integer elem, Solution<Integer> sol) {
-
-		setVariables(sol);
-		return evaluateInsertionQBF(elem);
-
-	}
-
-	/**
-	 * Determines the contribution to the QBFPT objective function from the
-	 * insertion of an element.
-	 * 
-	 * @param i
-	 *            Index of the element being inserted into the solution.
-	 * @return Ihe variation of the objective function resulting from the
-	 *         insertion.
-	 */
-	public Double evaluateInsertionQBF(int i) {
-
-		if (variables[i] == 1)
-			return 0.0;
-
-		return evaluateContributionQBF(i);
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see problems.Evaluator#evaluateRemovalCost(java.lang.Object,
-	 * solutions.Solution)
-	 */
-	@Override
-	public Double evaluateRemovalCost(Integer elem, Solution<Integer> sol) {
-
-		setVariables(sol);
-		return evaluateRemovalQBF(elem);
-
-	}
-
-	/**
-	 * Determines the contribution to the QBFPT objective function from the
-	 * removal of an element.
-	 * 
-	 * @param i
-	 *            Index of the element being removed from the solution.
-	 * @return The variation of the objective function resulting from the
-	 *         removal.
-	 */
-	public Double evaluateRemovalQBF(int i) {
-
-		if (variables[i] == 0)
-			return 0.0;
-
-		return -evaluateContributionQBF(i);
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see problems.Evaluator#evaluateExchangeCost(java.lang.Object,
-	 * java.lang.Object, solutions.Solution)
-	 */
-	@Override
-	public Double evaluateExchangeCost(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
-
-		setVariables(sol);
-		return evaluateExchangeQBF(elemIn, elemOut);
-
-	}
-
-	/**
-	 * Determines the contribution to the QBFPT objective function from the
-	 * exchange of two elements one belonging to the solution and the other not.
-	 * 
-	 * @param in
-	 *            The index of the element that is considered entering the
-	 *            solution.
-	 * @param out
-	 *            The index of the element that is considered exiting the
-	 *            solution.
-	 * @return The variation of the objective function resulting from the
-	 *         exchange.
-	 */
-	public Double evaluateExchangeQBF(int in, int out) {
-
-		Double sum = 0.0;
-
-		if (in == out)
-			return 0.0;
-		if (variables[in] == 1)
-			return evaluateRemovalQBF(out);
-		if (variables[out] == 0)
-			return evaluateInsertionQBF(in);
-
-		sum += evaluateContributionQBF(in);
-		sum -= evaluateContributionQBF(out);
-		sum -= (A[in][out] + A[out][in]);
-
-		return sum;
+		return null;
 	}
 
 	/**
-	 * Determines the contribution to the QBFPT objective function from the
-	 * insertion of an element. This method is faster than evaluating the whole
-	 * solution, since it uses the fact that only one line and one column from
-	 * matrix A needs to be evaluated when inserting a new element into the
-	 * solution. This method is different from {@link #evaluateInsertionQBF(int)},
-	 * since it disregards the fact that the element might already be in the
-	 * solution.
-	 * 
-	 * @param i
-	 *            index of the element being inserted into the solution.
-	 * @return the variation of the objective function resulting from the
-	 *         insertion.
+	 * Counts the triples whose elements are all in the solution.
+	 * @param x the words of the bitset representing the solution
+	 * @return the number of violated triples
 	 */
-	private Double evaluateContributionQBF(int i) {
-
-		Double sum = 0.0;
-
-		for (int j = 0; j < size; j++) {
-			if (i != j)
-				sum += variables[j] * (A[i][j] + A[j][i]);
+	public int countViolations(long[] x) {
+		int violations = 0;
+		for (int[] triple : this.triples) {
+			if (isSet(x, triple[0]) && isSet(x, triple[1]) && isSet(x, triple[2]))
+				violations++;
 		}
-		sum += A[i][i];
-
-		return sum;
+		return violations;
 	}
 
 	/**
-	 * Responsible for setting the QBFPT function parameters by reading the
-	 * necessary input from an external file. this method reads the domain's
-	 * dimension and matrix {@link #A}.
-	 * 
-	 * @param filename
-	 *            Name of the file containing the input for setting the black
-	 *            box function.
-	 * @return The dimension of the domain.
-	 * @throws IOException
-	 *             Necessary for I/O operations.
+	 * Lists the triples whose elements are all in the solution.
+	 * @param x the words of the bitset representing the solution
+	 * @param violated an array of at least {@link #getTriplesCount()}
+	 *        elements, which receives the indices of the violated triples
+	 * @return the number of violated triples
 	 */
-	protected Integer readInput(String filename) throws IOException {
-
-		Reader fileInst = new BufferedReader(new FileReader(filename));
-		StreamTokenizer stok = new StreamTokenizer(fileInst);
-
-		stok.nextToken();
-		Integer _size = (int) stok.nval;
-		A = new Double[_size][_size];
-
-		for (int i = 0; i < _size; i++) {
-			for (int j = i; j < _size; j++) {
-				stok.nextToken();
-				A[i][j] = stok.nval;
-				//A[j][i] = A[i][j];
-				if (j>i)
-					A[j][i] = 0.0;
-			}
+	public int findViolatedTriples(long[] x, int[] violated) {
+		int violations = 0;
+		for (int t = 0; t < this.triples.size(); t++) {
+			int[] triple = this.triples.get(t);
+			if (isSet(x, triple[0]) && isSet(x, triple[1]) && isSet(x, triple[2]))
+				violated[violations++] = t;
 		}
-
-		return _size;
-
+		return violations;
 	}
 
 	/**
-	 * Reserving the required memory for storing the values of the domain
-	 * variables.
-	 * 
-	 * @return a pointer to the array of domain variables.
+	 * @return the number of prohibited triples
 	 */
-	protected Double[] allocateVariables() {
-		Double[] _variables = new Double[size];
-		return _variables;
+	public int getTriplesCount() {
+		return this.triples.size();
 	}
 
 	/**
-	 * Reset the domain variables to their default values.
+	 * @param t the index of a prohibited triple
+	 * @return its variables, in increasing order. The array must not be
+	 *         modified.
 	 */
-	public void resetVariables() {
-		Arrays.fill(variables, 0.0);
+	public int[] getTriple(int t) {
+		return this.triples.get(t);
 	}
 
 	/**
-	 * Prints matrix {@link #A}.
+	 * Determines the variation of the number of violated triples resulting
+	 * from flipping a variable. Only the triples containing that variable are
+	 * visited.
+	 * @param x the words of the bitset representing the solution
+	 * @param i the variable being flipped
+	 * @return the variation of {@link #countViolations}
 	 */
-	public void printMatrix() {
-
-		for (int i = 0; i < size; i++) {
-			for (int j = i; j < size; j++) {
-				System.out.print(A[i][j] + " ");
+	public int evaluateFlipViolations(long[] x, int i) {
+		int delta = 0;
+		for (int t : this.triplesOf[i]) {
+			int[] triple = this.triples.get(t);
+			boolean othersSet = true;
+			for (int k : triple) {
+				if (k != i && !isSet(x, k))
+					othersSet = false;
 			}
-			System.out.println();
+			if (othersSet)
+				delta++;
 		}
+		return isSet(x, i) ? -delta : delta;
+	}
 
+	private boolean isInViolatedTriple(long[] x, int i) {
+		for (int t : this.triplesOf[i]) {
+			int[] triple = this.triples.get(t);
+			if (isSet(x, triple[0]) && isSet(x, triple[1]) && isSet(x, triple[2]))
+				return true;
+		}
+		return false;
 	}
 
 	/**
@@ -0,0 +1,233 @@
+package problems.qbfpt.qbf.solvers;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A declarative grid of GA_QBFPT runs, read from a properties file. Every
+ * combination of instance, population size, mutation rate, variant and seed
+ * is a cell of the grid, run once. For example:
+ *
+ *    instances = qbf020, qbf040, qbf400
+ *    popSizes = 100, 1000
+ *    # a number, or 1/n for the inverse of the instance size
+ *    mutationRates = 1/n, 0.01
+ *    # name:flags, the flags being isSUS, isUniformCrossover, isSteadyState,
+ *    # forceMutations and remove, as in GA_QBFPT.solve
+ *    variants = padrao:00000, evol1:01000, evol2:00100
+ *    # a list of seeds or ranges
+ *    seeds = 1-10
+ *    generations = 100000
+ *    maxTime = 1800
+ *    instanceDir = instances
+ *    output = results/experiments.csv
+ *    # optional, the number of processors by default
+ *    threads = 4
+ *
+ * @author ccavellucci, fusberti
+ */
+public class ExperimentGrid {
+
+	/**
+	 * A GA configuration, whose operators are given by the flags of
+	 * {@link GA_QBFPT#solve(boolean, boolean, boolean, boolean, boolean)}.
+	 */
+	public static class Variant {
+
+		public final String name;
+		public final boolean isSUS;
+		public final boolean isUniformCrossover;
+		public final boolean isSteadyState;
+		public final boolean forceMutations;
+		public final boolean remove;
+
+		/**
+		 * @param spec
+		 *            The variant as name:flags, e.g. evol1:01000.
+		 */
+		public Variant(String spec) {
+			int colon = spec.indexOf(':');
+			String flags = colon < 0 ? "" : spec.substring(colon + 1).trim();
+			if (colon <= 0 || !flags.matches("[01]{5}"))
+				throw new IllegalArgumentException("A variant must be name:flags, with 5 flags set to 0 or 1: " + spec);
+			this.name = spec.substring(0, colon).trim();
+			this.isSUS = flags.charAt(0) == '1';
+			this.isUniformCrossover = flags.charAt(1) == '1';
+			this.isSteadyState = flags.charAt(2) == '1';
+			this.forceMutations = flags.charAt(3) == '1';
+			this.remove = flags.charAt(4) == '1';
+		}
+
+	}
+
+	/**
+	 * A single run of the grid.
+	 */
+	public static class Cell {
+
+		public final String instance;
+		public final int popSize;
+
+		/**
+		 * the mutation rate as given in the grid, e.g. 1/n
+		 */
+		public final String mutationRate;
+		public final Variant variant;
+		public final long seed;
+
+		Cell(String instance, int popSize, String mutationRate, Variant variant, long seed) {
+			this.instance = instance;
+			this.popSize = popSize;
+			this.mutationRate = mutationRate;
+			this.variant = variant;
+			this.seed = seed;
+		}
+
+		/**
+		 * @return The values identifying the cell in the results: instance,
+		 *         population size, mutation rate, variant and seed.
+		 */
+		public List<String> key() {
+			List<String> key = new ArrayList<String>();
+			key.add(instance);
+			key.add(String.valueOf(popSize));
+			key.add(mutationRate);
+			key.add(variant.name);
+			key.add(String.valueOf(seed));
+			return key;
+		}
+
+		/**
+		 * @param size
+		 *            The size of the instance.
+		 * @return The mutation rate for an instance of that size.
+		 */
+		public double mutationRate(int size) {
+			if (mutationRate.equals("1/n"))
+				return 1.0 / size;
+			return Double.parseDouble(mutationRate);
+		}
+
+		@Override
+		public String toString() {
+			return String.join(" ", key());
+		}
+
+	}
+
+	public final List<String> instances = new ArrayList<String>();
+	public final List<Integer> popSizes = new ArrayList<Integer>();
+	public final List<String> mutationRates = new ArrayList<String>();
+	public final List<Variant> variants = new ArrayList<Variant>();
+	public final List<Long> seeds = new ArrayList<Long>();
+	public int generations = 100000;
+
+	/**
+	 * the time limit of each run, in seconds
+	 */
+	public double maxTime = 1800.0;
+	public String instanceDir = "instances";
+	public String output = "results/experiments.csv";
+	public int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Reads a grid from a properties file.
+	 *
+	 * @param filename
+	 *            Name of the file.
+	 * @return The grid.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static ExperimentGrid read(String filename) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = new FileInputStream(filename)) {
+			properties.load(in);
+		}
+		return new ExperimentGrid(properties);
+	}
+
+	/**
+	 * @param properties
+	 *            The grid, with the keys described above.
+	 */
+	public ExperimentGrid(Properties properties) {
+
+		for (String instance : list(properties, "instances")) {
+			instances.add(instance);
+		}
+		for (String popSize : list(properties, "popSizes")) {
+			popSizes.add(Integer.parseInt(popSize));
+		}
+		for (String mutationRate : list(properties, "mutationRates")) {
+			if (!mutationRate.equals("1/n")) {
+				double rate = Double.parseDouble(mutationRate);
+				if (!(rate >= 0 && rate <= 1))
+					throw new IllegalArgumentException("The mutation rate must be between 0 and 1: " + mutationRate);
+			}
+			mutationRates.add(mutationRate);
+		}
+		for (String variant : list(properties, "variants")) {
+			variants.add(new Variant(variant));
+		}
+		for (String seed : list(properties, "seeds")) {
+			int dash = seed.indexOf('-', 1);
+			if (dash < 0) {
+				seeds.add(Long.parseLong(seed));
+			} else {
+				long last = Long.parseLong(seed.substring(dash + 1).trim());
+				for (long s = Long.parseLong(seed.substring(0, dash).trim()); s <= last; s++) {
+					seeds.add(s);
+				}
+			}
+		}
+
+		generations = Integer.parseInt(properties.getProperty("generations", String.valueOf(generations)).trim());
+		maxTime = Double.parseDouble(properties.getProperty("maxTime", String.valueOf(maxTime)).trim());
+		instanceDir = properties.getProperty("instanceDir", instanceDir).trim();
+		output = properties.getProperty("output", output).trim();
+		threads = Integer.parseInt(properties.getProperty("threads", String.valueOf(threads)).trim());
+		if (threads < 1)
+			throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+	}
+
+	/**
+	 * @return Every cell of the grid, seeds varying slowest, so that the
+	 *         first completed runs already cover every configuration.
+	 */
+	public List<Cell> cells() {
+		List<Cell> cells = new ArrayList<Cell>();
+		for (long seed : seeds) {
+			for (String instance : instances) {
+				for (int popSize : popSizes) {
+					for (String mutationRate : mutationRates) {
+						for (Variant variant : variants) {
+							cells.add(new Cell(instance, popSize, mutationRate, variant, seed));
+						}
+					}
+				}
+			}
+		}
+		return cells;
+	}
+
+	/**
+	 * @return The comma separated values of a required property.
+	 */
+	private static List<String> list(Properties properties, String key) {
+		String value = properties.getProperty(key);
+		if (value == null || value.trim().isEmpty())
+			throw new IllegalArgumentException("Missing grid property: " + key);
+		List<String> values = new ArrayList<String>();
+		for (String item : value.split(",")) {
+			if (!item.trim().isEmpty())
+				values.add(item.trim());
+		}
+		return values;
+	}
+
+}
@@ -0,0 +1,158 @@
+package problems.qbfpt.qbf.solvers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import metaheuristics.ga.AbstractGA;
+import metaheuristics.ga.TimeLimit;
+import results.ResultsReader;
+import results.ResultsWriter;
+import results.RunRecord;
+import solutions.Solution;
+
+/**
+ * Runs every cell of an {@link ExperimentGrid} on a pool of worker threads.
+ * Each run has its own GA_QBFPT, and so its own evaluator, loaded from the
+ * instance file, and its own random stream, seeded by the seed of the cell,
+ * so the runs share no state and a cell gives the same result whatever the
+ * number of threads, unless stopped by the time limit.
+ *
+ * Each run is appended to the output file as a {@link RunRecord} as soon as
+ * it completes, through a {@link ResultsWriter}. When the output file already
+ * exists, the cells found in it are not run again, so an interrupted sweep is
+ * resumed by running the same grid again:
+ *
+ *    java problems.qbfpt.qbf.solvers.ExperimentRunner experiments/qbfpt.properties
+ *
+ * @author ccavellucci, fusberti
+ */
+public class ExperimentRunner {
+
+	private final ExperimentGrid grid;
+
+	/**
+	 * the output file, shared by the workers
+	 */
+	private ResultsWriter output;
+
+	/**
+	 * @param grid
+	 *            The grid being run.
+	 */
+	public ExperimentRunner(ExperimentGrid grid) {
+		this.grid = grid;
+	}
+
+	/**
+	 * Runs every cell of the grid that is not in the output file yet.
+	 *
+	 * @return The number of runs that failed, which are not recorded.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the runs.
+	 */
+	public int run() throws IOException, InterruptedException {
+
+		File file = new File(grid.output);
+		Set<List<String>> completed = new HashSet<List<String>>();
+		for (RunRecord record : ResultsReader.read(file)) {
+			completed.add(Arrays.asList(record.instance, String.valueOf(record.popSize), record.mutationRate, record.config, String.valueOf(record.seed)));
+		}
+
+		final List<ExperimentGrid.Cell> pending = new ArrayList<ExperimentGrid.Cell>();
+		for (ExperimentGrid.Cell cell : grid.cells()) {
+			if (!completed.contains(cell.key()))
+				pending.add(cell);
+		}
+		System.out.println(grid.cells().size() + " runs in the grid, " + (grid.cells().size() - pending.size()) + " already completed");
+		if (pending.isEmpty())
+			return 0;
+
+		output = new ResultsWriter(file);
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(grid.threads, pending.size()));
+		int failures = 0;
+		try {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for (final ExperimentGrid.Cell cell : pending) {
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						RunRecord record = runCell(cell);
+						output.write(record);
+						System.out.println("Completed " + cell + ": cost = " + record.cost + ", time = " + record.time + " seg");
+						return null;
+					}
+				});
+			}
+			List<Future<Void>> results = pool.invokeAll(tasks);
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					results.get(i).get();
+				} catch (ExecutionException e) {
+					failures++;
+					System.err.println("Run " + pending.get(i) + " failed: " + e.getCause());
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+			output.close();
+		}
+
+		return failures;
+	}
+
+	/**
+	 * Runs a single cell of the grid.
+	 *
+	 * @param cell
+	 *            The cell being run.
+	 * @return The record of the run.
+	 * @throws IOException
+	 *             if the instance cannot be read.
+	 */
+	protected RunRecord runCell(ExperimentGrid.Cell cell) throws IOException {
+
+		GA_QBFPT ga = new GA_QBFPT(grid.generations, cell.popSize, 0.0, new File(grid.instanceDir, cell.instance).getPath());
+		ga.setMutationRate(cell.mutationRate(ga.getChromosomeSize()));
+		ga.setSeed(cell.seed);
+		ga.setStoppingCriterion(new TimeLimit<Integer, Integer>(grid.maxTime));
+
+		ExperimentGrid.Variant v = cell.variant;
+		long startTime = System.nanoTime();
+		Solution<Integer> bestSol = ga.solve(v.isSUS, v.isUniformCrossover, v.isSteadyState, v.forceMutations, v.remove);
+		double time = (System.nanoTime() - startTime) / 1e9;
+
+		return new RunRecord(cell.instance, v.name, cell.mutationRate, ga, bestSol, time);
+	}
+
+	/**
+	 * Runs the grid given by a properties file.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		if (args.length != 1) {
+			System.err.println("Usage: java problems.qbfpt.qbf.solvers.ExperimentRunner <grid.properties>");
+			System.exit(1);
+		}
+
+		AbstractGA.verbose = false;
+		int failures = new ExperimentRunner(ExperimentGrid.read(args[0])).run();
+		if (failures > 0) {
+			System.err.println(failures + " runs failed");
+			System.exit(1);
+		}
+	}
+
+}
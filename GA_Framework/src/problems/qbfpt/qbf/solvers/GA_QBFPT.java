@@ -1,11 +1,12 @@
 package problems.qbfpt.qbf.solvers;
 
-import metaheuristics.ga.AbstractGA;
+import metaheuristics.ga.AbstractBinaryGA;
 import problems.qbfpt.qbf.QBFPT;
+import results.ResultsWriter;
+import results.RunRecord;
 import solutions.Solution;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -19,7 +20,76 @@ import java.util.List;
  * 
  * @author ccavellucci, fusberti
  */
-public class GA_QBFPT extends AbstractGA<Integer, Integer> {
+public class GA_QBFPT extends AbstractBinaryGA<Integer> {
+
+	/**
+	 * A binary chromosome that also keeps the number of prohibited triples it
+	 * violates, updated on each gene flip through
+	 * {@link QBFPT#evaluateFlipViolations}.
+	 */
+	public class QBFPTChromosome extends BinaryChromosome {
+
+		/**
+		 * the number of violated triples, or -1 if it is unknown
+		 */
+		protected int violations = -1;
+
+		public QBFPTChromosome() {
+			super();
+		}
+
+		public QBFPTChromosome(QBFPTChromosome chromosome) {
+			super(chromosome);
+			violations = chromosome.violations;
+		}
+
+		@Override
+		public QBFPTChromosome copy() {
+			return new QBFPTChromosome(this);
+		}
+
+		/**
+		 * @return The number of prohibited triples whose elements are all set
+		 *         to 1 in the chromosome.
+		 */
+		public int getViolations() {
+			if (violations < 0)
+				violations = ((QBFPT) ObjFunction).countViolations(words);
+			return violations;
+		}
+
+		@Override
+		protected void assign(BinaryChromosome source) {
+			super.assign(source);
+			violations = source instanceof GA_QBFPT.QBFPTChromosome ? ((QBFPTChromosome) source).violations : -1;
+		}
+
+		@Override
+		protected void onFlip(int locus) {
+			super.onFlip(locus);
+			if (violations >= 0)
+				violations += ((QBFPT) ObjFunction).evaluateFlipViolations(words, locus);
+		}
+
+		@Override
+		protected void onReset() {
+			super.onReset();
+			violations = -1;
+		}
+
+	}
+
+	/**
+	 * the scratch arrays of {@link #removeUntilFeasible} and
+	 * {@link #drawForbiddenValue}: the worklist of violated triples, the
+	 * variables belonging to them, the number of triples of the worklist each
+	 * variable belongs to, and the variation of the cost resulting from the
+	 * removal of each variable
+	 */
+	private final int[] violatedTriples;
+	private final int[] removalCandidates;
+	private final int[] violatedTriplesOf;
+	private final double[] removalCost;
 
 	/**
 	 * Constructor for the GA_QBFPT class. The QBFPT objective function is passed as
@@ -39,6 +109,10 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 	 */
 	public GA_QBFPT(Integer generations, Integer popSize, Double mutationRate, String filename) throws IOException {
 		super(new QBFPT(filename), generations, popSize, mutationRate);
+		violatedTriples = new int[((QBFPT) ObjFunction).getTriplesCount()];
+		removalCandidates = new int[chromosomeSize];
+		violatedTriplesOf = new int[chromosomeSize];
+		removalCost = new double[chromosomeSize];
 	}
 
 	/**
@@ -64,18 +138,43 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 	@Override
 	protected Solution<Integer> decode(Chromosome chromosome) {
 
+		BinaryChromosome binary = (BinaryChromosome) chromosome;
 		Solution<Integer> solution = createEmptySol();
-		for (int locus = 0; locus < chromosome.size(); locus++) {
-			if (chromosome.get(locus) == 1) {
-				solution.add(new Integer(locus));
-			}
+		for (int locus = binary.nextSetBit(0); locus >= 0; locus = binary.nextSetBit(locus + 1)) {
+			solution.add(locus);
 		}
 
-		ObjFunction.evaluate(solution);
+		solution.cost = binary.getCost();
 		return solution;
 	}
 
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.AbstractBinaryGA#evaluateCost(metaheuristics.ga.
+	 * AbstractBinaryGA.BinaryChromosome)
+	 */
+	@Override
+	protected double evaluateCost(BinaryChromosome chromosome) {
+
+		return ((QBFPT) ObjFunction).evaluate(chromosome.getWords());
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see metaheuristics.ga.AbstractBinaryGA#evaluateFlipCost(metaheuristics.ga.
+	 * AbstractBinaryGA.BinaryChromosome, int)
+	 */
+	@Override
+	protected double evaluateFlipCost(BinaryChromosome chromosome, int locus) {
+
+		return ((QBFPT) ObjFunction).evaluateFlipCost(chromosome.getWords(), locus);
+
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -84,10 +183,8 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 	@Override
 	protected Chromosome generateRandomChromosome() {
 
-		Chromosome chromosome = new Chromosome();
-		for (int i = 0; i < chromosomeSize; i++) {
-			chromosome.add(rng.nextInt(2));
-		}
+		QBFPTChromosome chromosome = new QBFPTChromosome();
+		chromosome.randomize();
 
 		return chromosome;
 	}
@@ -101,31 +198,123 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 	@Override
 	protected Double fitness(Chromosome chromosome) {
 
-		Solution<Integer> sol = decode(chromosome);
+		QBFPTChromosome c = (QBFPTChromosome) chromosome;
 		//if is a infeasible solution, then returns -5000
-		if(!((QBFPT)ObjFunction).isFeasible(sol))
+		if(c.getViolations() > 0)
 		    return -5000.0;
 
-        return sol.cost;
+        return c.getCost();
 
 	}
 
 	@Override
 	protected Integer findForbiddenValue(Chromosome chromosome)
 	{
-		Solution<Integer> sol = decode(chromosome);
-		return ((QBFPT)ObjFunction).findForbiddenValue(sol);
+		QBFPTChromosome c = (QBFPTChromosome) chromosome;
+		if (c.getViolations() == 0)
+			return null;
+		return ((QBFPT)ObjFunction).findForbiddenValue(c.getWords());
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The locus is drawn uniformly among the variables of every violated
+	 * triple.
+	 */
 	@Override
-	protected void removeUntilFeasible(Chromosome c)
+	protected Integer drawForbiddenValue(Chromosome chromosome)
 	{
-		Integer x;
-		while ((x = findForbiddenValue(c)) != null)
-		// x está na solução mas forma tripla proibida com alguém
-		{
-			c.set(x, 0);
-			// remover x da solução!
+		QBFPTChromosome c = (QBFPTChromosome) chromosome;
+		if (c.getViolations() == 0)
+			return null;
+
+		QBFPT qbfpt = (QBFPT) ObjFunction;
+		int pending = qbfpt.findViolatedTriples(c.getWords(), violatedTriples);
+		int candidates = 0;
+		for (int k = 0; k < pending; k++) {
+			for (int i : qbfpt.getTriple(violatedTriples[k])) {
+				if (violatedTriplesOf[i]++ == 0)
+					removalCandidates[candidates++] = i;
+			}
+		}
+		for (int k = 0; k < candidates; k++) {
+			violatedTriplesOf[removalCandidates[k]] = 0;
+		}
+
+		return removalCandidates[rng.nextInt(candidates)];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The violated triples are found once and kept in a worklist. At each
+	 * step, the variable of a violated triple whose removal costs the least
+	 * (ties going to the variable in more violated triples) is removed, and
+	 * the triples containing it leave the worklist. Removing a variable never
+	 * violates a triple, and changes the removal cost of any other variable i
+	 * by a_iv + a_vi only, so the costs are computed once and then updated in
+	 * O(1) per candidate, instead of rescanning the whole chromosome after
+	 * each removal.
+	 */
+	@Override
+	protected void removeUntilFeasible(Chromosome chromosome)
+	{
+		QBFPTChromosome c = (QBFPTChromosome) chromosome;
+		if (c.getViolations() == 0)
+			return;
+
+		QBFPT qbfpt = (QBFPT) ObjFunction;
+		long[] x = c.getWords();
+		int pending = qbfpt.findViolatedTriples(x, violatedTriples);
+
+		int candidates = 0;
+		for (int k = 0; k < pending; k++) {
+			int[] triple = qbfpt.getTriple(violatedTriples[k]);
+			for (int e = 0; e < 3; e++) {
+				if (e > 0 && triple[e] == triple[e - 1])
+					continue;
+				int i = triple[e];
+				if (violatedTriplesOf[i]++ == 0) {
+					removalCandidates[candidates++] = i;
+					removalCost[i] = qbfpt.evaluateFlipCost(x, i);
+				}
+			}
+		}
+
+		while (pending > 0) {
+
+			int best = -1;
+			for (int k = 0; k < candidates; k++) {
+				int i = removalCandidates[k];
+				if (violatedTriplesOf[i] == 0)
+					continue;
+				if (best < 0 || removalCost[i] > removalCost[best]
+						|| (removalCost[i] == removalCost[best] && violatedTriplesOf[i] > violatedTriplesOf[best]))
+					best = i;
+			}
+
+			c.flip(best);
+
+			int kept = 0;
+			for (int k = 0; k < pending; k++) {
+				int[] triple = qbfpt.getTriple(violatedTriples[k]);
+				if (triple[0] != best && triple[1] != best && triple[2] != best) {
+					violatedTriples[kept++] = violatedTriples[k];
+					continue;
+				}
+				for (int e = 0; e < 3; e++) {
+					if (e == 0 || triple[e] != triple[e - 1])
+						violatedTriplesOf[triple[e]]--;
+				}
+			}
+			pending = kept;
+
+			for (int k = 0; k < candidates; k++) {
+				int i = removalCandidates[k];
+				if (violatedTriplesOf[i] > 0)
+					removalCost[i] += qbfpt.A.get(i, best) + qbfpt.A.get(best, i);
+			}
 		}
 	}
 
@@ -140,7 +329,7 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 	@Override
 	protected void mutateGene(Chromosome chromosome, Integer locus) {
 
-		chromosome.set(locus, 1 - chromosome.get(locus));
+		((BinaryChromosome) chromosome).flip(locus);
 
 	}
 
@@ -178,20 +367,15 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 
 				System.out.println("Instanciou");
 				
-				FileWriter fileWriter = new FileWriter("results/"+instances.get(i)+".txt");
-				fileWriter.append(" ======== Execução " + instances.get(i) + " ======= \n\n");
-
-				System.out.println("Mexeu no arquivo");
-				
-				GA_QBFPT.executeInstance("GA Padrão",gaPadrao, fileWriter, false, false, false, false, false);
-				GA_QBFPT.executeInstance("GA Pop",gaPop, fileWriter, false, false, false, false, false);
-				GA_QBFPT.executeInstance("GA Mut",gaMut, fileWriter, false, false, false, false, false);
-				GA_QBFPT.executeInstance("GA Evol1",gaEvol1, fileWriter, false, true, false, false, false);
-				GA_QBFPT.executeInstance("GA Evol2",gaEvol2, fileWriter, false, false, true, false, false);
+				try (ResultsWriter results = new ResultsWriter(new File("results/" + instances.get(i) + ".csv"))) {
+					GA_QBFPT.executeInstance("GA Padrão", instances.get(i), gaPadrao, results, false, false, false, false, false);
+					GA_QBFPT.executeInstance("GA Pop", instances.get(i), gaPop, results, false, false, false, false, false);
+					GA_QBFPT.executeInstance("GA Mut", instances.get(i), gaMut, results, false, false, false, false, false);
+					GA_QBFPT.executeInstance("GA Evol1", instances.get(i), gaEvol1, results, false, true, false, false, false);
+					GA_QBFPT.executeInstance("GA Evol2", instances.get(i), gaEvol2, results, false, false, true, false, false);
+				}
 
 				System.out.println("Executou as variantes");
-
-				fileWriter.close();
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -199,24 +383,35 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 
 	}
 	
-	public static void executeInstance(String title, GA_QBFPT ga, FileWriter fileWriter, boolean isSUS, boolean isUniformCrossover, boolean isSteadyState, boolean forceMutations, boolean remove) {
-		long startTime = System.currentTimeMillis();
+	/**
+	 * Runs a GA variant on an instance, prints its results and records them,
+	 * one {@link RunRecord} per run.
+	 * 
+	 * @param title
+	 *            The name of the variant.
+	 * @param instance
+	 *            The name of the instance.
+	 * @param ga
+	 *            The GA, built for the instance.
+	 * @param results
+	 *            The file the run is recorded in, or null.
+	 */
+	public static void executeInstance(String title, String instance, GA_QBFPT ga, ResultsWriter results, boolean isSUS, boolean isUniformCrossover, boolean isSteadyState, boolean forceMutations, boolean remove) {
+		long startTime = System.nanoTime();
 		Solution<Integer> bestSol = ga.solve(isSUS, isUniformCrossover, isSteadyState, forceMutations, remove);
-		long endTime = System.currentTimeMillis();
-		long totalTime = endTime - startTime;
-		double time = (double)totalTime/(double)1000;
+		double time = (System.nanoTime() - startTime) / 1e9;
 
 		System.out.println("title = " + title);
 		System.out.println("maxVal = " + bestSol);
 		System.out.println("Time = "+ time +" seg");
+		System.out.println("Time to best = " + ga.getTimeToBest() + " seg");
 		System.out.println("Extra muts = " + ga.getExtraMutationsCounter());
+		System.out.println("Extra muts fallbacks = " + ga.getExtraMutationsFallbacks());
+		System.out.println("Extra muts time = " + ga.getExtraMutationsTime() + " seg");
 		
-		if(fileWriter != null) {
+		if(results != null) {
 			try {
-				fileWriter.append(title+"\n");
-				fileWriter.append("Best solution: "+ bestSol + "\n");
-				fileWriter.append("Time: "+ time + "seg \n");
-				fileWriter.append("Extra mutations: " + ga.getExtraMutationsCounter() + "\n\n");
+				results.write(new RunRecord(instance, title, String.valueOf(ga.getMutationRate()), ga, bestSol, time));
 			} catch (IOException e) {
 				e.printStackTrace();
 				System.out.println("Error writing in file: "+title);
@@ -0,0 +1,296 @@
+package results;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The formats of a results file, one {@link RunRecord} per line: CSV, with a
+ * header line naming the {@link RunRecord#COLUMNS}, or JSON Lines, with a
+ * flat object per record. A CSV value may hold line feeds inside its quotes,
+ * so a record ends at the first line feed outside quotes. The format of a file is given by its extension,
+ * .jsonl for JSON Lines and anything else for CSV.
+ *
+ * @author ccavellucci, fusberti
+ */
+public enum ResultsFormat {
+
+	CSV {
+		@Override
+		String header() {
+			return format(RunRecord.COLUMNS);
+		}
+
+		@Override
+		boolean quotesLineFeeds() {
+			return true;
+		}
+
+		@Override
+		String format(RunRecord record) {
+			return format(record.values());
+		}
+
+		private String format(List<String> values) {
+			StringBuilder line = new StringBuilder();
+			for (String value : values) {
+				if (line.length() > 0)
+					line.append(',');
+				if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+					line.append('"').append(value.replace("\"", "\"\"")).append('"');
+				} else {
+					line.append(value);
+				}
+			}
+			return line.toString();
+		}
+
+		@Override
+		Map<String, String> parse(String line, List<String> header) {
+			List<String> values = new ArrayList<String>();
+			StringBuilder value = new StringBuilder();
+			boolean quoted = false;
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (quoted) {
+					if (c != '"') {
+						value.append(c);
+					} else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						value.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == ',') {
+					values.add(value.toString());
+					value.setLength(0);
+				} else {
+					value.append(c);
+				}
+			}
+			if (quoted)
+				throw new IllegalArgumentException("Unterminated quoted value");
+			values.add(value.toString());
+
+			if (values.size() != header.size())
+				throw new IllegalArgumentException("Expected " + header.size() + " values, found " + values.size());
+			Map<String, String> fields = new LinkedHashMap<String, String>();
+			for (int i = 0; i < values.size(); i++) {
+				fields.put(header.get(i), values.get(i));
+			}
+			return fields;
+		}
+	},
+
+	JSONL {
+		@Override
+		String header() {
+			return null;
+		}
+
+		@Override
+		String format(RunRecord record) {
+			StringBuilder line = new StringBuilder("{");
+			List<String> values = record.values();
+			for (int i = 0; i < values.size(); i++) {
+				if (i > 0)
+					line.append(',');
+				quote(line, RunRecord.COLUMNS.get(i)).append(':');
+				if (NUMBERS.contains(RunRecord.COLUMNS.get(i)) && isJsonNumber(values.get(i))) {
+					line.append(values.get(i));
+				} else {
+					quote(line, values.get(i));
+				}
+			}
+			return line.append('}').toString();
+		}
+
+		private StringBuilder quote(StringBuilder line, String value) {
+			line.append('"');
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c == '"' || c == '\\') {
+					line.append('\\').append(c);
+				} else if (c < ' ') {
+					line.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+				} else {
+					line.append(c);
+				}
+			}
+			return line.append('"');
+		}
+
+		private boolean isJsonNumber(String value) {
+			return !value.equals("NaN") && !value.endsWith("Infinity");
+		}
+
+		@Override
+		Map<String, String> parse(String line, List<String> header) {
+			JsonObjectParser parser = new JsonObjectParser(line);
+			return parser.parse();
+		}
+	};
+
+	/**
+	 * the fields written as JSON numbers, the others being strings
+	 */
+	private static final List<String> NUMBERS = Arrays.asList("size", "popSize", "seed", "cost", "time", "timeToBest", "generations", "evaluations", "extraMutations", "extraMutationsFallbacks", "extraMutationsTime");
+
+	/**
+	 * @return The first line of a file, or null if the format has none.
+	 */
+	abstract String header();
+
+	/**
+	 * @return Whether a line feed between double quotes is part of a value
+	 *         rather than the end of a record.
+	 */
+	boolean quotesLineFeeds() {
+		return false;
+	}
+
+	/**
+	 * @return The line of a record, without the line terminator.
+	 */
+	abstract String format(RunRecord record);
+
+	/**
+	 * Parses the line of a record.
+	 *
+	 * @param line
+	 *            The line, without the line terminator.
+	 * @param header
+	 *            The names of the fields, as read from the header line of a
+	 *            CSV file.
+	 * @return The value of each field, by name.
+	 * @throws IllegalArgumentException
+	 *             if the line is malformed.
+	 */
+	abstract Map<String, String> parse(String line, List<String> header);
+
+	/**
+	 * @param file
+	 *            A results file.
+	 * @return The format of the file, given by its extension.
+	 */
+	public static ResultsFormat of(File file) {
+		return file.getName().endsWith(".jsonl") ? JSONL : CSV;
+	}
+
+	/**
+	 * A parser of the flat JSON objects written by {@link #JSONL}, whose
+	 * values are strings or numbers, numbers being returned as written.
+	 */
+	private static class JsonObjectParser {
+
+		private final String line;
+		private int pos;
+
+		JsonObjectParser(String line) {
+			this.line = line;
+		}
+
+		Map<String, String> parse() {
+			Map<String, String> fields = new LinkedHashMap<String, String>();
+			expect('{');
+			if (peek() == '}') {
+				pos++;
+			} else {
+				do {
+					String name = string();
+					expect(':');
+					fields.put(name, peek() == '"' ? string() : number());
+				} while (next() == ',');
+				pos--;
+				expect('}');
+			}
+			if (peek() != 0)
+				throw error("Unexpected content after the object");
+			return fields;
+		}
+
+		private String string() {
+			expect('"');
+			StringBuilder value = new StringBuilder();
+			while (true) {
+				if (pos >= line.length())
+					throw error("Unterminated string");
+				char c = line.charAt(pos++);
+				if (c == '"')
+					return value.toString();
+				if (c != '\\') {
+					value.append(c);
+					continue;
+				}
+				if (pos >= line.length())
+					throw error("Unterminated string");
+				c = line.charAt(pos++);
+				switch (c) {
+				case 'u':
+					if (pos + 4 > line.length())
+						throw error("Truncated escape");
+					value.append((char) Integer.parseInt(line.substring(pos, pos + 4), 16));
+					pos += 4;
+					break;
+				case 'n':
+					value.append('\n');
+					break;
+				case 't':
+					value.append('\t');
+					break;
+				case 'r':
+					value.append('\r');
+					break;
+				case 'b':
+					value.append('\b');
+					break;
+				case 'f':
+					value.append('\f');
+					break;
+				default:
+					value.append(c);
+				}
+			}
+		}
+
+		private String number() {
+			int start = pos;
+			while (pos < line.length() && "+-.eE0123456789".indexOf(line.charAt(pos)) >= 0) {
+				pos++;
+			}
+			if (pos == start)
+				throw error("Expected a string or a number");
+			return line.substring(start, pos);
+		}
+
+		private char peek() {
+			while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+				pos++;
+			}
+			return pos < line.length() ? line.charAt(pos) : 0;
+		}
+
+		private char next() {
+			char c = peek();
+			pos++;
+			return c;
+		}
+
+		private void expect(char c) {
+			if (next() != c)
+				throw error("Expected '" + c + "'");
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at column " + (pos + 1));
+		}
+
+	}
+
+}
@@ -0,0 +1,112 @@
+package results;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the {@link RunRecord}s of results files written by a
+ * {@link ResultsWriter}. A last record without a line terminator, left by a
+ * run that was being written when the program stopped, is ignored.
+ *
+ * @author ccavellucci, fusberti
+ */
+public final class ResultsReader {
+
+	private ResultsReader() {
+	}
+
+	/**
+	 * Reads the records of several results files, which may be in different
+	 * formats.
+	 *
+	 * @param files
+	 *            The results files.
+	 * @return The records of every file, in the order of the files.
+	 * @throws IOException
+	 *             if a file cannot be read or is malformed.
+	 */
+	public static List<RunRecord> read(List<File> files) throws IOException {
+		List<RunRecord> records = new ArrayList<RunRecord>();
+		for (File file : files) {
+			records.addAll(read(file));
+		}
+		return records;
+	}
+
+	/**
+	 * Reads the records of a results file, in the format given by its
+	 * extension.
+	 *
+	 * @param file
+	 *            The results file.
+	 * @return The records, in the order they were written, or none if the
+	 *         file does not exist.
+	 * @throws IOException
+	 *             if the file cannot be read or is malformed, with the line
+	 *             at fault.
+	 */
+	public static List<RunRecord> read(File file) throws IOException {
+
+		List<RunRecord> records = new ArrayList<RunRecord>();
+		if (!file.exists())
+			return records;
+
+		ResultsFormat format = ResultsFormat.of(file);
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+
+			int lineNumber = 0;
+			String line = nextRecord(in, format);
+			if (line != null && format.header() != null) {
+				lineNumber++;
+				if (!line.equals(format.header()))
+					throw new IOException(file + ":1: not a results file, or written with other columns: " + line);
+				line = nextRecord(in, format);
+			}
+
+			while (line != null) {
+				lineNumber++;
+				if (!line.trim().isEmpty()) {
+					try {
+						records.add(new RunRecord(format.parse(line, RunRecord.COLUMNS)));
+					} catch (IllegalArgumentException e) {
+						throw new IOException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+					}
+				}
+				for (int i = line.indexOf('\n'); i >= 0; i = line.indexOf('\n', i + 1)) {
+					lineNumber++;
+				}
+				line = nextRecord(in, format);
+			}
+		}
+
+		return records;
+	}
+
+	/**
+	 * @return The next record terminated by a line feed, or null at the end
+	 *         of the file or before an unterminated last record.
+	 */
+	private static String nextRecord(BufferedReader in, ResultsFormat format) throws IOException {
+		StringBuilder line = new StringBuilder();
+		boolean quoted = false;
+		int c;
+		while ((c = in.read()) != '\n' || quoted) {
+			if (c < 0)
+				return null;
+			if (c == '"' && format.quotesLineFeeds())
+				quoted = !quoted;
+			line.append((char) c);
+		}
+		int length = line.length();
+		if (length > 0 && line.charAt(length - 1) == '\r')
+			line.setLength(length - 1);
+		return line.toString();
+	}
+
+}
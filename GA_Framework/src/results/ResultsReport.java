@@ -0,0 +1,180 @@
+package results;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Aggregates the {@link RunRecord}s of results files, grouping the runs of a
+ * same configuration on a same instance, whatever their seed and file:
+ *
+ *    java results.ResultsReport results/qbf020.csv results/experiments.csv
+ *
+ * A directory given in the arguments stands for the .csv and .jsonl files
+ * it contains.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class ResultsReport {
+
+	/**
+	 * The runs of a configuration on an instance.
+	 */
+	public static class Group {
+
+		public final String instance;
+		public final String config;
+		public final int popSize;
+		public final String mutationRate;
+		public final List<RunRecord> runs = new ArrayList<RunRecord>();
+
+		Group(RunRecord record) {
+			this.instance = record.instance;
+			this.config = record.config;
+			this.popSize = record.popSize;
+			this.mutationRate = record.mutationRate;
+		}
+
+		public double bestCost() {
+			double best = Double.NEGATIVE_INFINITY;
+			for (RunRecord run : runs) {
+				best = Math.max(best, run.cost);
+			}
+			return best;
+		}
+
+		public double worstCost() {
+			double worst = Double.POSITIVE_INFINITY;
+			for (RunRecord run : runs) {
+				worst = Math.min(worst, run.cost);
+			}
+			return worst;
+		}
+
+		public double meanCost() {
+			double sum = 0;
+			for (RunRecord run : runs) {
+				sum += run.cost;
+			}
+			return sum / runs.size();
+		}
+
+		/**
+		 * @return The sample standard deviation of the costs, or 0 for a
+		 *         single run.
+		 */
+		public double stdDevCost() {
+			if (runs.size() < 2)
+				return 0;
+			double mean = meanCost();
+			double sum = 0;
+			for (RunRecord run : runs) {
+				sum += (run.cost - mean) * (run.cost - mean);
+			}
+			return Math.sqrt(sum / (runs.size() - 1));
+		}
+
+		public double meanTime() {
+			double sum = 0;
+			for (RunRecord run : runs) {
+				sum += run.time;
+			}
+			return sum / runs.size();
+		}
+
+		public double meanTimeToBest() {
+			double sum = 0;
+			for (RunRecord run : runs) {
+				sum += run.timeToBest;
+			}
+			return sum / runs.size();
+		}
+
+		public double meanEvaluations() {
+			double sum = 0;
+			for (RunRecord run : runs) {
+				sum += run.evaluations;
+			}
+			return sum / runs.size();
+		}
+
+		public double meanExtraMutationsFallbacks() {
+			double sum = 0;
+			for (RunRecord run : runs) {
+				sum += run.extraMutationsFallbacks;
+			}
+			return sum / runs.size();
+		}
+
+		/**
+		 * @return The mean time spent by the extra mutations, in seconds.
+		 */
+		public double meanExtraMutationsTime() {
+			double sum = 0;
+			for (RunRecord run : runs) {
+				sum += run.extraMutationsTime;
+			}
+			return sum / runs.size();
+		}
+
+	}
+
+	/**
+	 * Groups records by instance and configuration.
+	 *
+	 * @param records
+	 *            The records of any number of runs.
+	 * @return The groups, in the order of their first record.
+	 */
+	public static List<Group> aggregate(List<RunRecord> records) {
+		Map<List<String>, Group> groups = new LinkedHashMap<List<String>, Group>();
+		for (RunRecord record : records) {
+			List<String> key = Arrays.asList(record.instance, record.config, String.valueOf(record.popSize), record.mutationRate);
+			Group group = groups.get(key);
+			if (group == null) {
+				group = new Group(record);
+				groups.put(key, group);
+			}
+			group.runs.add(record);
+		}
+		return new ArrayList<Group>(groups.values());
+	}
+
+	/**
+	 * Prints the aggregated results of the files given as arguments.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if (args.length == 0) {
+			System.err.println("Usage: java results.ResultsReport <results file or directory>...");
+			System.exit(1);
+		}
+
+		List<File> files = new ArrayList<File>();
+		for (String arg : args) {
+			File file = new File(arg);
+			if (!file.isDirectory()) {
+				files.add(file);
+				continue;
+			}
+			File[] children = file.listFiles();
+			Arrays.sort(children);
+			for (File child : children) {
+				if (child.getName().endsWith(".csv") || child.getName().endsWith(".jsonl"))
+					files.add(child);
+			}
+		}
+
+		List<Group> groups = aggregate(ResultsReader.read(files));
+		System.out.println(String.format(Locale.ROOT, "%-10s %-12s %7s %8s %5s %12s %12s %10s %12s %10s %10s %12s %10s %10s", "instance", "config", "popSize", "mutRate", "runs", "best", "mean", "stdDev", "worst", "time", "timeToBest", "evaluations", "fallbacks", "extraTime"));
+		for (Group g : groups) {
+			System.out.println(String.format(Locale.ROOT, "%-10s %-12s %7d %8s %5d %12.2f %12.2f %10.2f %12.2f %10.3f %10.3f %12.0f %10.1f %10.3f", g.instance, g.config, g.popSize, g.mutationRate, g.runs.size(), g.bestCost(), g.meanCost(), g.stdDevCost(), g.worstCost(), g.meanTime(), g.meanTimeToBest(), g.meanEvaluations(), g.meanExtraMutationsFallbacks(), g.meanExtraMutationsTime()));
+		}
+	}
+
+}
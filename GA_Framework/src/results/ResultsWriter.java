@@ -0,0 +1,150 @@
+package results;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Appends {@link RunRecord}s to a results file, in the {@link ResultsFormat}
+ * given by its extension. The lines are buffered, and each record is flushed
+ * and synced to the disk as soon as it is written, i.e. at the end of each
+ * run, so a crash loses at most the run in progress.
+ *
+ * An existing file is appended to. A last record left incomplete by a crash
+ * is removed first, and the header of a CSV file must name the current
+ * {@link RunRecord#COLUMNS}.
+ *
+ * The writer may be shared by threads running in parallel.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class ResultsWriter implements Closeable {
+
+	private final File file;
+	private final ResultsFormat format;
+	private final FileOutputStream stream;
+	private final Writer out;
+
+	/**
+	 * Opens a results file for appending, creating it and its directory if
+	 * needed.
+	 *
+	 * @param file
+	 *            The results file.
+	 * @throws IOException
+	 *             if the file cannot be written, or is a CSV file with other
+	 *             columns.
+	 */
+	public ResultsWriter(File file) throws IOException {
+		this.file = file;
+		this.format = ResultsFormat.of(file);
+
+		if (file.getAbsoluteFile().getParentFile() != null)
+			file.getAbsoluteFile().getParentFile().mkdirs();
+		if (file.exists())
+			checkHeader(file, format);
+		truncatePartialRecord(file, format);
+
+		boolean empty = !file.exists() || file.length() == 0;
+		stream = new FileOutputStream(file, true);
+		out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+		if (empty && format.header() != null) {
+			out.write(format.header());
+			out.write('\n');
+			sync();
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public ResultsFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Appends a record and syncs the file to the disk.
+	 *
+	 * @param record
+	 *            The record of a finished run.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public synchronized void write(RunRecord record) throws IOException {
+		out.write(format.format(record));
+		out.write('\n');
+		sync();
+	}
+
+	private void sync() throws IOException {
+		out.flush();
+		stream.getFD().sync();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Checks that the header of an existing CSV file names the current
+	 * columns.
+	 */
+	private static void checkHeader(File file, ResultsFormat format) throws IOException {
+		if (format.header() == null)
+			return;
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String line = in.readLine();
+			if (line != null && !line.equals(format.header()))
+				throw new IOException(file + ": not a results file, or written with other columns: " + line);
+		}
+	}
+
+	/**
+	 * Removes the last record of a file if it has no line terminator, i.e. if
+	 * it was being written when the program stopped. The file is scanned from
+	 * its start, since a line feed may be inside a quoted CSV value; the
+	 * double quotes and line feeds are never part of a multi-byte UTF-8
+	 * character, so the bytes are scanned as they are.
+	 */
+	private static void truncatePartialRecord(File file, ResultsFormat format) throws IOException {
+		if (!file.exists())
+			return;
+		long length = 0;
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			boolean quoted = false;
+			int c;
+			for (long position = 1; (c = in.read()) >= 0; position++) {
+				if (c == '"' && format.quotesLineFeeds()) {
+					quoted = !quoted;
+				} else if (c == '\n' && !quoted) {
+					length = position;
+				}
+			}
+		}
+		if (length < file.length()) {
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				raf.setLength(length);
+				raf.getFD().sync();
+			}
+		}
+	}
+
+}
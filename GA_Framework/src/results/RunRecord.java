@@ -0,0 +1,202 @@
+package results;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import metaheuristics.ga.AbstractGA;
+import solutions.Solution;
+
+/**
+ * The outcome of a single GA run: its configuration, its seed and what it
+ * achieved. A record is written as one line by a {@link ResultsWriter} and
+ * read back by a {@link ResultsReader}, with the fields named by
+ * {@link #COLUMNS}.
+ *
+ * The best solution is kept as a bitstring in hexadecimal, each digit
+ * holding four loci, the first one in its most significant bit (see
+ * {@link #encodeSolution}).
+ *
+ * @author ccavellucci, fusberti
+ */
+public class RunRecord {
+
+	/**
+	 * the names of the fields, in the order they are written
+	 */
+	public static final List<String> COLUMNS = Collections.unmodifiableList(Arrays.asList("instance", "size", "config", "popSize", "mutationRate", "seed", "cost", "time", "timeToBest", "generations", "evaluations", "extraMutations", "extraMutationsFallbacks", "extraMutationsTime", "solution"));
+
+	public String instance;
+
+	/**
+	 * the size of the instance, i.e. the number of loci of the solution
+	 */
+	public int size;
+
+	/**
+	 * the name of the GA configuration, e.g. a variant of an experiment
+	 */
+	public String config;
+	public int popSize;
+
+	/**
+	 * the mutation rate as given in the configuration, e.g. 1/n
+	 */
+	public String mutationRate;
+	public long seed;
+	public double cost;
+
+	/**
+	 * the running time and the time to find the best solution, in seconds
+	 */
+	public double time;
+	public double timeToBest;
+	public int generations;
+	public long evaluations;
+	public long extraMutations;
+
+	/**
+	 * the number of chromosomes the extra mutations could not repair, and the
+	 * time they took, in seconds
+	 */
+	public long extraMutationsFallbacks;
+	public double extraMutationsTime;
+	public String solution;
+
+	public RunRecord() {
+	}
+
+	/**
+	 * Creates the record of a run that has just finished.
+	 *
+	 * @param instance
+	 *            The name of the instance solved.
+	 * @param config
+	 *            The name of the GA configuration.
+	 * @param mutationRate
+	 *            The mutation rate as given in the configuration.
+	 * @param ga
+	 *            The GA, right after its run.
+	 * @param bestSol
+	 *            The best solution of the run.
+	 * @param time
+	 *            The running time, in seconds.
+	 */
+	public RunRecord(String instance, String config, String mutationRate, AbstractGA<?, Integer> ga, Solution<Integer> bestSol, double time) {
+		this.instance = instance;
+		this.size = ga.getChromosomeSize();
+		this.config = config;
+		this.popSize = ga.getPopSize();
+		this.mutationRate = mutationRate;
+		this.seed = ga.getSeed();
+		this.cost = bestSol.cost;
+		this.time = time;
+		this.timeToBest = ga.getTimeToBest();
+		this.generations = ga.getGeneration();
+		this.evaluations = ga.getEvaluationsCounter();
+		this.extraMutations = ga.getExtraMutationsCounter();
+		this.extraMutationsFallbacks = ga.getExtraMutationsFallbacks();
+		this.extraMutationsTime = ga.getExtraMutationsTime();
+		this.solution = encodeSolution(bestSol, size);
+	}
+
+	/**
+	 * Creates a record from the values of its fields.
+	 *
+	 * @param values
+	 *            The value of each of the {@link #COLUMNS}.
+	 * @throws IllegalArgumentException
+	 *             if a field is missing or is not a number where one is
+	 *             expected.
+	 */
+	public RunRecord(Map<String, String> values) {
+		for (String column : COLUMNS) {
+			if (values.get(column) == null)
+				throw new IllegalArgumentException("Missing field: " + column);
+		}
+		this.instance = values.get("instance");
+		this.size = Integer.parseInt(values.get("size"));
+		this.config = values.get("config");
+		this.popSize = Integer.parseInt(values.get("popSize"));
+		this.mutationRate = values.get("mutationRate");
+		this.seed = Long.parseLong(values.get("seed"));
+		this.cost = Double.parseDouble(values.get("cost"));
+		this.time = Double.parseDouble(values.get("time"));
+		this.timeToBest = Double.parseDouble(values.get("timeToBest"));
+		this.generations = Integer.parseInt(values.get("generations"));
+		this.evaluations = Long.parseLong(values.get("evaluations"));
+		this.extraMutations = Long.parseLong(values.get("extraMutations"));
+		this.extraMutationsFallbacks = Long.parseLong(values.get("extraMutationsFallbacks"));
+		this.extraMutationsTime = Double.parseDouble(values.get("extraMutationsTime"));
+		this.solution = values.get("solution");
+	}
+
+	/**
+	 * @return The value of each of the {@link #COLUMNS}, in order.
+	 */
+	public List<String> values() {
+		return Arrays.asList(instance, String.valueOf(size), config, String.valueOf(popSize), mutationRate, String.valueOf(seed), String.valueOf(cost), String.valueOf(time), String.valueOf(timeToBest), String.valueOf(generations), String.valueOf(evaluations), String.valueOf(extraMutations), String.valueOf(extraMutationsFallbacks), String.valueOf(extraMutationsTime), solution);
+	}
+
+	/**
+	 * @return The elements of the best solution.
+	 */
+	public List<Integer> getElements() {
+		return decodeSolution(solution, size);
+	}
+
+	/**
+	 * Encodes a solution as a bitstring in hexadecimal, each digit holding
+	 * four loci, the first one in its most significant bit.
+	 *
+	 * @param elements
+	 *            The loci set in the solution.
+	 * @param size
+	 *            The number of loci.
+	 * @return The hexadecimal bitstring, of (size + 3) / 4 digits.
+	 */
+	public static String encodeSolution(Iterable<Integer> elements, int size) {
+		int[] digits = new int[(size + 3) / 4];
+		for (int locus : elements) {
+			digits[locus / 4] |= 8 >>> (locus % 4);
+		}
+		StringBuilder hex = new StringBuilder(digits.length);
+		for (int digit : digits) {
+			hex.append(Character.forDigit(digit, 16));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * Decodes a solution encoded by {@link #encodeSolution}.
+	 *
+	 * @param hex
+	 *            The hexadecimal bitstring.
+	 * @param size
+	 *            The number of loci.
+	 * @return The loci set in the solution, in increasing order.
+	 */
+	public static List<Integer> decodeSolution(String hex, int size) {
+		if (hex.length() != (size + 3) / 4)
+			throw new IllegalArgumentException("A solution of " + size + " loci must have " + (size + 3) / 4 + " digits: " + hex);
+		List<Integer> elements = new ArrayList<Integer>();
+		for (int i = 0; i < hex.length(); i++) {
+			int digit = Character.digit(hex.charAt(i), 16);
+			if (digit < 0)
+				throw new IllegalArgumentException("Not a hexadecimal digit: " + hex.charAt(i));
+			for (int bit = 0; bit < 4; bit++) {
+				if ((digit & (8 >>> bit)) != 0)
+					elements.add(4 * i + bit);
+			}
+		}
+		return elements;
+	}
+
+	@Override
+	public String toString() {
+		return String.join(",", values());
+	}
+
+}
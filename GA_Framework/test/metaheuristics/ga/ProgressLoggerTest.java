@@ -0,0 +1,64 @@
+package metaheuristics.ga;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import solutions.Solution;
+
+/**
+ * Checks that a {@link ProgressLogger} shared by several runs coalesces the
+ * improvements of each run separately.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class ProgressLoggerTest {
+
+	private static ProgressLogger.Improvement improvement(String source, int generation) {
+		Solution<Integer> solution = new Solution<Integer>();
+		solution.cost = (double) generation;
+		return new ProgressLogger.Improvement(source, generation, generation, 0, solution);
+	}
+
+	private static String lastLine(String output, String source) {
+		String last = null;
+		for (String line : output.split("\\R")) {
+			if (line.startsWith("[" + source + "] "))
+				last = line;
+		}
+		return last;
+	}
+
+	@Test
+	public void keepsTheLatestImprovementOfEachRun() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+		/* a long interval, so that only the first line of a run is due */
+		try (ProgressLogger logger = new ProgressLogger(out, 60.0)) {
+			for (int generation = 1; generation <= 5; generation++) {
+				logger.publish(improvement("island-0", generation));
+				logger.publish(improvement("island-1", 10 * generation));
+			}
+			logger.publish(improvement("island-0", 6));
+
+			logger.flush("island-1");
+			String output = bytes.toString(StandardCharsets.UTF_8);
+			assertTrue(lastLine(output, "island-1").startsWith("[island-1] (Gen. 50, "), output);
+
+			logger.flush();
+			output = bytes.toString(StandardCharsets.UTF_8);
+			assertTrue(lastLine(output, "island-0").startsWith("[island-0] (Gen. 6, "), output);
+		}
+
+		for (String line : bytes.toString(StandardCharsets.UTF_8).split("\\R")) {
+			assertEquals('[', line.charAt(0), line);
+		}
+	}
+
+}
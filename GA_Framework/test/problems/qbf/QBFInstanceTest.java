@@ -0,0 +1,51 @@
+package problems.qbf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks the coefficients accepted by the text parser of
+ * {@link QBFInstance}.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class QBFInstanceTest {
+
+	@TempDir
+	File dir;
+
+	private String write(String content) throws IOException {
+		File file = new File(dir, "instance");
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+		return file.getPath();
+	}
+
+	@Test
+	public void readsDecimals() throws IOException {
+		QBFMatrix A = QBFInstance.readText(write("2\n-7 +2.5\n1.25e2\n"));
+		assertEquals(2, A.size);
+		assertEquals(-7.0, A.get(0, 0));
+		assertEquals(2.5, A.get(0, 1));
+		assertEquals(125.0, A.get(1, 1));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "NaN", "Infinity", "-Infinity", "1f", "1d", "0x10", "1e999", ".5", "1.", "1e", "1e+", "--1", "1,5" })
+	public void rejectsOtherTokens(String coefficient) throws IOException {
+		String filename = write("2\n1 2\n" + coefficient + "\n");
+		IOException e = assertThrows(IOException.class, () -> QBFInstance.readText(filename));
+		assertTrue(e.getMessage().startsWith(filename + ":3:1: "), e.getMessage());
+	}
+
+}
@@ -0,0 +1,148 @@
+package problems.qbf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import solutions.Solution;
+
+/**
+ * Checks that the kernels of {@link QBFMatrix} agree, on random binary
+ * vectors of every density, so that both sides of
+ * {@link QBFMatrix#SPARSE_DENSITY_THRESHOLD} are covered: the sparse and the
+ * dense kernels, the evaluations of {@link QBF}, and the sum of the flip
+ * costs of the variables set one at a time.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class QBFMatrixTest {
+
+	private static final double[] DENSITIES = { 0.0, 0.05, 0.3, 0.5, 0.84, 0.86, 0.95, 1.0 };
+
+	private static final int SAMPLES = 20;
+
+	/**
+	 * the coefficients being integers, the kernels only differ in the order
+	 * of their sums
+	 */
+	private static final double DELTA = 1e-6;
+
+	/**
+	 * @return x'.A.x computed straight from its definition.
+	 */
+	private static double reference(QBFMatrix matrix, boolean[] x) {
+		double sum = 0.0;
+		for (int i = 0; i < matrix.size; i++) {
+			for (int j = 0; j < matrix.size; j++) {
+				if (x[i] && x[j])
+					sum += matrix.get(i, j);
+			}
+		}
+		return sum;
+	}
+
+	private static boolean[] randomVector(SplittableRandom rng, int size, double density) {
+		boolean[] x = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			x[i] = rng.nextDouble() < density;
+		}
+		return x;
+	}
+
+	private static long[] bitset(boolean[] x) {
+		long[] words = new long[(x.length + 63) >>> 6];
+		for (int i = 0; i < x.length; i++) {
+			if (x[i])
+				words[i >>> 6] |= 1L << i;
+		}
+		return words;
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "qbf020", "qbf100" })
+	public void kernelsAgree(String instance) throws IOException {
+
+		QBF qbf = new QBF("instances/" + instance);
+		QBFMatrix matrix = qbf.A;
+		int n = matrix.size;
+		SplittableRandom rng = new SplittableRandom(0);
+
+		for (double density : DENSITIES) {
+			for (int s = 0; s < SAMPLES; s++) {
+				boolean[] x = randomVector(rng, n, density);
+				double expected = reference(matrix, x);
+
+				int[] indices = new int[n];
+				int count = 0;
+				double[] dense = new double[n];
+				Solution<Integer> solution = new Solution<Integer>();
+				for (int i = 0; i < n; i++) {
+					if (x[i]) {
+						indices[count++] = i;
+						dense[i] = 1.0;
+						solution.add(i);
+					}
+				}
+				String where = instance + ", density " + density + ", sample " + s;
+
+				assertEquals(expected, matrix.evaluateSparse(indices, count), DELTA, "sparse, " + where);
+				assertEquals(expected, matrix.evaluate(dense), DELTA, "dense, " + where);
+				assertEquals(expected, matrix.evaluate(indices, count), DELTA, "indices, " + where);
+				assertEquals(expected, matrix.evaluate(bitset(x)), DELTA, "bitset, " + where);
+				assertEquals(expected, qbf.evaluate(solution), DELTA, "evaluate(Solution), " + where);
+				qbf.setVariables(solution);
+				assertEquals(expected, qbf.evaluateQBF(), DELTA, "evaluateQBF, " + where);
+
+				long[] words = bitset(x);
+				for (int i = 0; i < n; i++) {
+					assertEquals(matrix.contribution(dense, i), matrix.contribution(words, i), DELTA, "contribution of " + i + ", " + where);
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "qbf020", "qbf100" })
+	public void repeatedElementsCountOnce(String instance) throws IOException {
+
+		QBF qbf = new QBF("instances/" + instance);
+		Solution<Integer> solution = new Solution<Integer>();
+		solution.add(3);
+		solution.add(7);
+		solution.add(11);
+		double expected = qbf.evaluate(solution);
+
+		solution.add(7);
+		solution.add(3);
+		assertEquals(expected, qbf.evaluate(solution), DELTA);
+		qbf.setVariables(solution);
+		assertEquals(expected, qbf.evaluateQBF(), DELTA);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "qbf020", "qbf100" })
+	public void flipCostsAddUp(String instance) throws IOException {
+
+		QBF qbf = new QBF("instances/" + instance);
+		int n = qbf.getDomainSize();
+		SplittableRandom rng = new SplittableRandom(1);
+
+		for (int s = 0; s < SAMPLES; s++) {
+			long[] x = new long[(n + 63) >>> 6];
+			double value = 0.0;
+
+			/* flips random variables, setting and resetting them */
+			for (int flip = 0; flip < 4 * n; flip++) {
+				int i = rng.nextInt(n);
+				value += qbf.evaluateFlipCost(x, i);
+				x[i >>> 6] ^= 1L << i;
+				assertEquals(qbf.evaluate(x), value, DELTA, instance + ", sample " + s + ", flip " + flip);
+			}
+		}
+	}
+
+}
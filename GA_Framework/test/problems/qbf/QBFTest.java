@@ -0,0 +1,58 @@
+package problems.qbf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import problems.qbfpt.qbf.QBFPT;
+import solutions.Solution;
+
+/**
+ * Checks the insertion, removal and exchange costs of the
+ * {@link problems.Evaluator} methods of {@link QBF}, which {@link QBFPT}
+ * inherits, against full evaluations.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class QBFTest {
+
+	private static final double DELTA = 1e-6;
+
+	private static Solution<Integer> with(Solution<Integer> sol, int in, int out) {
+		Solution<Integer> moved = new Solution<Integer>(sol);
+		moved.remove(Integer.valueOf(out));
+		if (in >= 0 && !moved.contains(in))
+			moved.add(in);
+		return moved;
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "qbf020", "qbf100" })
+	public void costsMatchFullEvaluations(String instance) throws IOException {
+
+		SplittableRandom rng = new SplittableRandom(0);
+		for (QBF qbf : new QBF[] { new QBF("instances/" + instance), new QBFPT("instances/" + instance) }) {
+			int n = qbf.getDomainSize();
+			for (int s = 0; s < 50; s++) {
+				Solution<Integer> sol = new Solution<Integer>();
+				for (int i = 0; i < n; i++) {
+					if (rng.nextBoolean())
+						sol.add(i);
+				}
+				double cost = qbf.evaluate(sol);
+				int in = rng.nextInt(n);
+				int out = rng.nextInt(n);
+
+				assertEquals(qbf.evaluate(with(sol, in, -1)) - cost, qbf.evaluateInsertionCost(in, sol), DELTA);
+				assertEquals(qbf.evaluate(with(sol, -1, out)) - cost, qbf.evaluateRemovalCost(out, sol), DELTA);
+				double exchange = in == out ? 0.0 : qbf.evaluate(with(sol, in, out)) - cost;
+				assertEquals(exchange, qbf.evaluateExchangeCost(in, out, sol), DELTA);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+package problems.qbfpt.qbf.solvers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import metaheuristics.ga.ExtraMutationsRepair;
+import metaheuristics.ga.RemovalRepair;
+import problems.qbfpt.qbf.QBFPT;
+
+/**
+ * Checks that the cost and the number of violated triples that
+ * {@link GA_QBFPT.QBFPTChromosome} keeps up to date, gene flip after gene
+ * flip, agree with full evaluations by {@link QBFPT#evaluate(long[])} and
+ * {@link QBFPT#countViolations(long[])}, after random flips, crossovers and
+ * repairs.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class GA_QBFPTTest {
+
+	private static final double DELTA = 1e-6;
+
+	private static final int SAMPLES = 50;
+
+	/**
+	 * @return A random chromosome, whose cost and violations are tracked from
+	 *         now on.
+	 */
+	private static GA_QBFPT.QBFPTChromosome randomChromosome(GA_QBFPT ga) {
+		GA_QBFPT.QBFPTChromosome chromosome = (GA_QBFPT.QBFPTChromosome) ga.generateRandomChromosome();
+		chromosome.getCost();
+		chromosome.getViolations();
+		return chromosome;
+	}
+
+	/**
+	 * Checks the values of a chromosome against full evaluations. They are
+	 * the tracked ones, unless the chromosome discarded them after changing
+	 * many genes at once.
+	 */
+	private static void assertTracked(QBFPT qbfpt, GA_QBFPT.QBFPTChromosome chromosome, String where) {
+		long[] x = chromosome.getWords();
+		assertEquals(qbfpt.countViolations(x), chromosome.getViolations(), "violations, " + where);
+		assertEquals(qbfpt.evaluate(x), chromosome.getCost(), DELTA, "cost, " + where);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "qbf020", "qbf100" })
+	public void randomFlipsKeepTrackedValues(String instance) throws IOException {
+
+		QBFPT qbfpt = new QBFPT("instances/" + instance);
+		GA_QBFPT ga = new GA_QBFPT(1, 10, 0.01, "instances/" + instance);
+		ga.setSeed(0);
+		SplittableRandom rng = new SplittableRandom(0);
+		int n = qbfpt.getDomainSize();
+
+		for (int s = 0; s < SAMPLES; s++) {
+			GA_QBFPT.QBFPTChromosome chromosome = randomChromosome(ga);
+			for (int flip = 0; flip < 4 * n; flip++) {
+				chromosome.flip(rng.nextInt(n));
+				assertTrue(chromosome.violations >= 0, "violations no longer tracked, " + instance + ", sample " + s);
+				assertTracked(qbfpt, chromosome, instance + ", sample " + s + ", flip " + flip);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "qbf020", "qbf100" })
+	public void crossoversKeepTrackedValues(String instance) throws IOException {
+
+		QBFPT qbfpt = new QBFPT("instances/" + instance);
+		GA_QBFPT ga = new GA_QBFPT(1, 10, 0.01, "instances/" + instance);
+		ga.setSeed(0);
+		SplittableRandom rng = new SplittableRandom(0);
+		int n = qbfpt.getDomainSize();
+
+		for (int s = 0; s < SAMPLES; s++) {
+			GA_QBFPT.QBFPTChromosome parent1 = randomChromosome(ga);
+			GA_QBFPT.QBFPTChromosome parent2 = randomChromosome(ga);
+			String where = instance + ", sample " + s;
+
+			/* the 2-point crossover, as in TwoPointCrossover */
+			int cut1 = rng.nextInt(n + 1);
+			int cut2 = rng.nextInt(n + 1);
+			GA_QBFPT.QBFPTChromosome offspring1 = parent1.copy();
+			GA_QBFPT.QBFPTChromosome offspring2 = parent2.copy();
+			offspring1.copyRange(parent2, Math.min(cut1, cut2), Math.max(cut1, cut2));
+			offspring2.copyRange(parent1, Math.min(cut1, cut2), Math.max(cut1, cut2));
+			assertTracked(qbfpt, offspring1, "2-point, " + where);
+			assertTracked(qbfpt, offspring2, "2-point, " + where);
+
+			/* the uniform crossover, as in UniformCrossover */
+			offspring1 = parent1.copy();
+			offspring2 = parent2.copy();
+			offspring1.uniformExchange(offspring2);
+			assertTracked(qbfpt, offspring1, "uniform, " + where);
+			assertTracked(qbfpt, offspring2, "uniform, " + where);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "qbf020", "qbf100" })
+	public void removalRepairKeepsTrackedValues(String instance) throws IOException {
+
+		QBFPT qbfpt = new QBFPT("instances/" + instance);
+		GA_QBFPT ga = new GA_QBFPT(1, 10, 0.01, "instances/" + instance);
+		ga.setSeed(0);
+		RemovalRepair<Integer, Integer> repair = new RemovalRepair<Integer, Integer>();
+
+		for (int s = 0; s < SAMPLES; s++) {
+			GA_QBFPT.QBFPTChromosome chromosome = randomChromosome(ga);
+			repair.repair(ga, chromosome);
+			assertTracked(qbfpt, chromosome, instance + ", sample " + s);
+			assertEquals(0, chromosome.violations);
+		}
+	}
+
+	/**
+	 * Every mutation of the {@link ExtraMutationsRepair} removes a variable of
+	 * a violated triple, so a chromosome violating at most maxMutations
+	 * triples is repaired without a fallback, and one violating more takes at
+	 * most maxMutations mutations before the fallback.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1, 3, 100 })
+	public void extraMutationsRepairKeepsTrackedValues(int maxMutations) throws IOException {
+
+		QBFPT qbfpt = new QBFPT("instances/qbf100");
+		GA_QBFPT ga = new GA_QBFPT(1, 10, 0.01, "instances/qbf100");
+		ga.setSeed(0);
+		ExtraMutationsRepair<Integer, Integer> repair = new ExtraMutationsRepair<Integer, Integer>(maxMutations);
+
+		for (int s = 0; s < SAMPLES; s++) {
+			GA_QBFPT.QBFPTChromosome chromosome = randomChromosome(ga);
+			int violations = chromosome.violations;
+			int mutations = ga.getExtraMutationsCounter();
+			int fallbacks = ga.getExtraMutationsFallbacks();
+			String where = "at most " + maxMutations + " mutations, sample " + s;
+
+			repair.repair(ga, chromosome);
+			assertTracked(qbfpt, chromosome, where);
+			assertEquals(0, chromosome.violations, where);
+
+			mutations = ga.getExtraMutationsCounter() - mutations;
+			fallbacks = ga.getExtraMutationsFallbacks() - fallbacks;
+			assertTrue(mutations <= Math.min(maxMutations, violations), mutations + " mutations, " + where);
+			if (violations <= maxMutations)
+				assertEquals(0, fallbacks, where);
+			if (violations > 0 && maxMutations == 0)
+				assertEquals(1, fallbacks, where);
+			assertTrue(fallbacks <= 1, where);
+			if (fallbacks > 0)
+				assertEquals(maxMutations, mutations, where);
+		}
+
+		if (maxMutations == 0)
+			assertTrue(ga.getExtraMutationsFallbacks() > 0);
+	}
+
+}
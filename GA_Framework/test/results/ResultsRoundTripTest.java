@@ -0,0 +1,120 @@
+package results;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Writes {@link RunRecord}s with a {@link ResultsWriter} and reads them back
+ * with a {@link ResultsReader}, in both {@link ResultsFormat}s.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class ResultsRoundTripTest {
+
+	@TempDir
+	File dir;
+
+	private static RunRecord record(String config, long seed) {
+		RunRecord record = new RunRecord();
+		record.instance = "qbf020";
+		record.size = 20;
+		record.config = config;
+		record.popSize = 100;
+		record.mutationRate = "1/n";
+		record.seed = seed;
+		record.cost = 125.5;
+		record.time = 1.25;
+		record.timeToBest = 0.5;
+		record.generations = 1000;
+		record.evaluations = 1L << 40;
+		record.extraMutations = 7;
+		record.extraMutationsFallbacks = 2;
+		record.extraMutationsTime = 0.125;
+		record.solution = RunRecord.encodeSolution(Arrays.asList(0, 3, 19), 20);
+		return record;
+	}
+
+	private void write(File file, RunRecord... records) throws IOException {
+		try (ResultsWriter writer = new ResultsWriter(file)) {
+			for (RunRecord record : records) {
+				writer.write(record);
+			}
+		}
+	}
+
+	private static void assertRecordEquals(RunRecord expected, RunRecord actual) {
+		assertEquals(expected.values(), actual.values());
+	}
+
+	private void roundTrip(String filename) throws IOException {
+		File file = new File(dir, filename);
+		RunRecord plain = record("default", 1);
+		RunRecord quoted = record("pop=100, \"uniform\"\nmut=1/n\r\n", -3);
+		write(file, plain, quoted);
+
+		List<RunRecord> read = ResultsReader.read(file);
+		assertEquals(2, read.size());
+		assertRecordEquals(plain, read.get(0));
+		assertRecordEquals(quoted, read.get(1));
+		assertEquals(Arrays.asList(0, 3, 19), read.get(1).getElements());
+	}
+
+	@Test
+	public void csvRoundTrip() throws IOException {
+		roundTrip("results.csv");
+	}
+
+	@Test
+	public void jsonlRoundTrip() throws IOException {
+		roundTrip("results.jsonl");
+	}
+
+	/**
+	 * Tears the last record, as a crash while writing it would, in the
+	 * middle of a quoted line feed for CSV: the reader skips it, and the
+	 * writer truncates it before appending.
+	 */
+	private void tornRecord(String filename) throws IOException {
+		File file = new File(dir, filename);
+		RunRecord first = record("a,b\nc", 1);
+		RunRecord torn = record("a,b\nc", 2);
+		write(file, first, torn);
+
+		String last = ResultsFormat.of(file).format(torn) + "\n";
+		int lineFeed = last.indexOf('\n');
+		int kept = lineFeed < last.length() - 1 ? lineFeed + 1 : last.length() / 2;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - last.length() + kept);
+		}
+
+		List<RunRecord> read = ResultsReader.read(file);
+		assertEquals(1, read.size());
+		assertRecordEquals(first, read.get(0));
+
+		RunRecord next = record("a,b\nc", 3);
+		write(file, next);
+		read = ResultsReader.read(file);
+		assertEquals(2, read.size());
+		assertRecordEquals(first, read.get(0));
+		assertRecordEquals(next, read.get(1));
+	}
+
+	@Test
+	public void csvTornRecord() throws IOException {
+		tornRecord("results.csv");
+	}
+
+	@Test
+	public void jsonlTornRecord() throws IOException {
+		tornRecord("results.jsonl");
+	}
+
+}